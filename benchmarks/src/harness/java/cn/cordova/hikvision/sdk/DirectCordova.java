@@ -0,0 +1,90 @@
+package cn.cordova.hikvision.sdk;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.apache.cordova.CordovaInterface;
+import org.apache.cordova.CordovaPlugin;
+import org.apache.cordova.CordovaWebView;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在 JVM 中加载插件的 cordova 宿主
+ * <p>
+ * 插件的线程池在调用线程中直接执行任务，execute 返回时命令已经完成并回调；WebView 放在一个 FrameLayout 中，
+ * 嵌入网页的播放窗口可以添加到它的父布局。
+ */
+public class DirectCordova implements CordovaInterface, CordovaWebView {
+    private final Activity mActivity = new Activity();
+    private final FrameLayout mParent = new FrameLayout(mActivity);
+    private final View mWebView = new View(mActivity);
+    private final ExecutorService mThreadPool = new DirectExecutorService();
+
+    public DirectCordova() {
+        mParent.addView(mWebView);
+    }
+
+    /**
+     * 创建并初始化插件
+     */
+    public <T extends CordovaPlugin> T initialize(T plugin) {
+        plugin.privateInitialize(plugin.getClass().getSimpleName(), this, this);
+        return plugin;
+    }
+
+    @Override
+    public Activity getActivity() {
+        return mActivity;
+    }
+
+    @Override
+    public ExecutorService getThreadPool() {
+        return mThreadPool;
+    }
+
+    @Override
+    public View getView() {
+        return mWebView;
+    }
+
+    private static final class DirectExecutorService extends AbstractExecutorService {
+        private volatile boolean mShutdown = false;
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            mShutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            mShutdown = true;
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return mShutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return mShutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package cn.cordova.hikvision.sdk;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.SurfaceTexture;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import android.view.Surface;
+
+import com.hikvision.open.hikvideoplayer.CustomRect;
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+import com.hikvision.open.hikvideoplayer.HikVideoPlayerCallback;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import hik.common.isms.hpsclient.AbsTime;
+
+/**
+ * 模拟的播放器，不依赖海康 native 库
+ * <p>
+ * 按脚本模拟开流耗时、播放结果、错误码、取流异常和画面帧率：开流方法和真实 SDK 一样阻塞调用线程，
+ * 结果在另外的线程中回调；画面按帧间隔绘制到 SurfaceTexture 上，FrameMonitor 等逻辑可以正常工作。
+ * 用于在 JVM 中压测开流调度和状态机，见 {@link LoadTest}。
+ */
+public class FakeHikVideoPlayer implements HikVideoPlayer {
+    private static final String TAG = "FakeHikVideoPlayer";
+
+    /**
+     * 模拟的错误码，与海康的错误码区分
+     */
+    public static final int ERROR_FAKE = 0x1F000001;
+
+    private static final ScheduledExecutorService sScheduler = Executors.newScheduledThreadPool(2, new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "hik-fake-player");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final Script mScript;
+    private final Object mLock = new Object();
+    private final Paint mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private volatile int mLastError = 0;
+    /**
+     * 以下字段通过 mLock 访问
+     */
+    private Surface mSurface;
+    private String mUrl;
+    private HikVideoPlayerCallback mCallback;
+    private boolean mPlaying = false;
+    private boolean mPaused = false;
+    private long mPlayStartTime;
+    private int mFrameCount = 0;
+    private ScheduledFuture<?> mFrameFuture;
+    private ScheduledFuture<?> mExceptionFuture;
+    private String mRecordPath;
+
+    /**
+     * 模拟脚本，参数格式：{ 'connectLatency': number, 'fail': boolean, 'errorCode': number,
+     * 'exceptionAfter': number, 'exceptionCode': number, 'frameInterval': number, 'freezeAfter': number }
+     * <p>
+     * connectLatency 为开流阻塞时间；fail 为 true 时开流失败并返回 errorCode；exceptionAfter 大于 0 时播放该时长后回调
+     * EXCEPTION 和 exceptionCode；frameInterval 为帧间隔；freezeAfter 大于 0 时播放该时长后不再出画面。时间单位毫秒。
+     */
+    public static final class Script {
+        final long connectLatencyMs;
+        final boolean fail;
+        final int errorCode;
+        final long exceptionAfterMs;
+        final int exceptionCode;
+        final long frameIntervalMs;
+        final long freezeAfterMs;
+
+        public Script(@Nullable JSONObject options) {
+            JSONObject script = options != null ? options : new JSONObject();
+            connectLatencyMs = Math.max(0, script.optLong("connectLatency", 300));
+            fail = script.optBoolean("fail", false);
+            errorCode = script.optInt("errorCode", ERROR_FAKE);
+            exceptionAfterMs = script.optLong("exceptionAfter", 0);
+            exceptionCode = script.optInt("exceptionCode", ERROR_FAKE);
+            frameIntervalMs = Math.max(10, script.optLong("frameInterval", 40));
+            freezeAfterMs = script.optLong("freezeAfter", 0);
+        }
+    }
+
+    public FakeHikVideoPlayer(@NonNull Script script) {
+        mScript = script;
+        mPaint.setColor(Color.WHITE);
+        mPaint.setTextSize(32);
+    }
+
+    @Override
+    public String getVersion() {
+        return "fake";
+    }
+
+    @Override
+    public int getLastError() {
+        return mLastError;
+    }
+
+    @Override
+    public void setSurfaceTexture(SurfaceTexture surfaceTexture) {
+        setVideoWindow(surfaceTexture);
+    }
+
+    @Override
+    public void setHardDecodePlay(boolean hardDecode) {
+    }
+
+    @Override
+    public void setSmartDetect(boolean smartDetect) {
+    }
+
+    @Override
+    public boolean startRealPlay(String url, HikVideoPlayerCallback callback) {
+        return connect(url, callback);
+    }
+
+    @Override
+    public boolean startPlayback(String url, AbsTime startTime, AbsTime endTime, HikVideoPlayerCallback callback) {
+        return connect(url, callback);
+    }
+
+    @Override
+    public boolean startPlayback(String url, String startTime, String endTime, HikVideoPlayerCallback callback) {
+        return connect(url, callback);
+    }
+
+    @Override
+    public boolean stopPlay() {
+        synchronized (mLock) {
+            mPlaying = false;
+            mPaused = false;
+            mCallback = null;
+            cancelLocked();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean changeStream(String url, HikVideoPlayerCallback callback) {
+        synchronized (mLock) {
+            if (!mPlaying) {
+                mLastError = ERROR_FAKE;
+                return false;
+            }
+        }
+        return connect(url, callback);
+    }
+
+    @Override
+    public boolean seekAbsPlayback(AbsTime time, HikVideoPlayerCallback callback) {
+        return seek(callback);
+    }
+
+    @Override
+    public boolean seekAbsPlayback(String time, HikVideoPlayerCallback callback) {
+        return seek(callback);
+    }
+
+    @Override
+    public boolean pause() {
+        synchronized (mLock) {
+            mPaused = mPlaying;
+            return mPlaying;
+        }
+    }
+
+    @Override
+    public boolean resume() {
+        synchronized (mLock) {
+            mPaused = false;
+            return mPlaying;
+        }
+    }
+
+    @Override
+    public boolean startVoiceTalk(String url, HikVideoPlayerCallback.VoiceTalkCallback callback) {
+        mLastError = ERROR_FAKE;
+        return false;
+    }
+
+    @Override
+    public boolean stopVoiceTalk() {
+        return true;
+    }
+
+    @Override
+    public boolean setVideoWindow(SurfaceTexture surfaceTexture) {
+        synchronized (mLock) {
+            if (mSurface != null) {
+                mSurface.release();
+                mSurface = null;
+            }
+            if (surfaceTexture != null) {
+                mSurface = new Surface(surfaceTexture);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean enableSound(boolean enable) {
+        return true;
+    }
+
+    @Override
+    public boolean capturePicture(String path) {
+        synchronized (mLock) {
+            if (!mPlaying) {
+                mLastError = ERROR_FAKE;
+                return false;
+            }
+        }
+        Bitmap bitmap = Bitmap.createBitmap(320, 180, Bitmap.Config.RGB_565);
+        synchronized (mLock) {
+            drawFrame(new Canvas(bitmap), SystemClock.uptimeMillis());
+        }
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(path);
+            return bitmap.compress(Bitmap.CompressFormat.JPEG, 80, out);
+        } catch (IOException e) {
+            mLastError = ERROR_FAKE;
+            return false;
+        } finally {
+            bitmap.recycle();
+            closeQuietly(out);
+        }
+    }
+
+    @Override
+    public boolean startRecord(String path) {
+        synchronized (mLock) {
+            if (!mPlaying || mRecordPath != null) {
+                mLastError = ERROR_FAKE;
+                return false;
+            }
+            try {
+                if (!new File(path).createNewFile()) {
+                    Log.w(TAG, "startRecord: file exists " + path);
+                }
+            } catch (IOException e) {
+                mLastError = ERROR_FAKE;
+                return false;
+            }
+            mRecordPath = path;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean stopRecord() {
+        synchronized (mLock) {
+            boolean recording = mRecordPath != null;
+            mRecordPath = null;
+            return recording;
+        }
+    }
+
+    @Override
+    public long getOSDTime() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public boolean openDigitalZoom(CustomRect original, CustomRect current) {
+        return true;
+    }
+
+    @Override
+    public boolean closeDigitalZoom() {
+        return true;
+    }
+
+    /**
+     * 和真实 SDK 一样阻塞调用线程，结果在模拟器线程中回调
+     */
+    private boolean connect(String url, final HikVideoPlayerCallback callback) {
+        synchronized (mLock) {
+            cancelLocked();
+            mPlaying = false;
+        }
+        SystemClock.sleep(mScript.connectLatencyMs);
+        if (mScript.fail) {
+            mLastError = mScript.errorCode;
+            return false;
+        }
+        synchronized (mLock) {
+            mUrl = url;
+            mCallback = callback;
+            mPlaying = true;
+            mPaused = false;
+            mPlayStartTime = SystemClock.uptimeMillis();
+            mFrameFuture = sScheduler.scheduleAtFixedRate(mFrameTask, 0, mScript.frameIntervalMs, TimeUnit.MILLISECONDS);
+            if (mScript.exceptionAfterMs > 0) {
+                mExceptionFuture = sScheduler.schedule(mExceptionTask, mScript.exceptionAfterMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        sScheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                callback.onPlayerStatus(HikVideoPlayerCallback.Status.SUCCESS, 0);
+            }
+        });
+        return true;
+    }
+
+    private boolean seek(final HikVideoPlayerCallback callback) {
+        synchronized (mLock) {
+            if (!mPlaying) {
+                mLastError = ERROR_FAKE;
+                return false;
+            }
+        }
+        sScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                callback.onPlayerStatus(HikVideoPlayerCallback.Status.SUCCESS, 0);
+            }
+        }, mScript.connectLatencyMs / 2, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    private final Runnable mExceptionTask = new Runnable() {
+        @Override
+        public void run() {
+            HikVideoPlayerCallback callback;
+            synchronized (mLock) {
+                callback = mCallback;
+                mPlaying = false;
+                mCallback = null;
+                cancelLocked();
+            }
+            if (callback != null) {
+                mLastError = mScript.exceptionCode;
+                callback.onPlayerStatus(HikVideoPlayerCallback.Status.EXCEPTION, mScript.exceptionCode);
+            }
+        }
+    };
+
+    private final Runnable mFrameTask = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (mLock) {
+                long now = SystemClock.uptimeMillis();
+                if (!mPlaying || mPaused || mSurface == null) {
+                    return;
+                }
+                if (mScript.freezeAfterMs > 0 && now - mPlayStartTime > mScript.freezeAfterMs) {
+                    return;
+                }
+                try {
+                    Canvas canvas = mSurface.lockCanvas(null);
+                    try {
+                        drawFrame(canvas, now);
+                    } finally {
+                        mSurface.unlockCanvasAndPost(canvas);
+                    }
+                    mFrameCount++;
+                } catch (IllegalArgumentException | IllegalStateException | Surface.OutOfResourcesException e) {
+                    //画面已经销毁，等待重新绑定
+                    Log.w(TAG, "drawFrame: " + e.toString());
+                }
+            }
+        }
+    };
+
+    /**
+     * 绘制一帧画面，调用时需要持有 mLock
+     */
+    private void drawFrame(Canvas canvas, long now) {
+        canvas.drawColor(Color.DKGRAY);
+        canvas.drawText(String.valueOf(mUrl), 16, 40, mPaint);
+        canvas.drawText("frame " + mFrameCount + "  " + (now - mPlayStartTime) + "ms", 16, 80, mPaint);
+    }
+
+    private void cancelLocked() {
+        if (mFrameFuture != null) {
+            mFrameFuture.cancel(false);
+            mFrameFuture = null;
+        }
+        if (mExceptionFuture != null) {
+            mExceptionFuture.cancel(false);
+            mExceptionFuture = null;
+        }
+        mRecordPath = null;
+    }
+
+    private static void closeQuietly(@Nullable OutputStream out) {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
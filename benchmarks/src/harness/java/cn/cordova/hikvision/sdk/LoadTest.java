@@ -0,0 +1,289 @@
+package cn.cordova.hikvision.sdk;
+
+import android.support.annotation.NonNull;
+
+import com.hikvision.open.hikvideoplayer.HikVideoPlayerCallback;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多路播放压测：用 {@link FakeHikVideoPlayer} 模拟数百路监控点，测量 {@link PlayerTaskExecutor} 的开流调度和
+ * {@link PlayerStateMachine} 的吞吐
+ * <p>
+ * 调度压测每轮对所有监控点连续开流 restarts 次（模拟快速切换，只有最后一次开流回调结果），等待全部结果后再全部停止；
+ * 状态机压测由多个线程交错驱动所有窗口的状态机完成 LOADING、SUCCESS、STOPPING、IDLE 的循环。
+ * 被取代的开流回调了结果、状态机拒绝了开流结果或有监控点没有回调时以非 0 退出。
+ * <p>
+ * 参数格式为 key=value：streams 监控点数量（默认 400）、rounds 轮数（默认 5）、restarts 每轮连续开流次数（默认 3）、
+ * connectLatency 开流耗时（毫秒，默认 20，每路在 1 到 2 倍之间）、failRate 开流失败比例（默认 0.1）、
+ * threads 状态机压测线程数（默认 4）、duration 状态机压测时长（毫秒，默认 2000）、seed 随机数种子（默认 1）。
+ */
+public class LoadTest {
+    /**
+     * 等待一轮开流结果的最长时间
+     */
+    private static final long ROUND_TIMEOUT_MS = 60 * 1000;
+
+    private final int mStreams;
+    private final int mRounds;
+    private final int mRestarts;
+    private final long mConnectLatencyMs;
+    private final double mFailRate;
+    private final int mThreads;
+    private final long mDurationMs;
+    private final long mSeed;
+
+    private final List<Stream> mStreamList = new ArrayList<>();
+    /**
+     * 违反调度约定的次数：被取代的开流回调了结果，或结果到达时状态机不在加载中
+     */
+    private final AtomicInteger mViolations = new AtomicInteger();
+    private int mLost = 0;
+
+    /**
+     * 一路监控点：模拟播放器和播放窗口的状态机
+     */
+    private static final class Stream {
+        final String url;
+        final FakeHikVideoPlayer player;
+        final PlayerStateMachine state = new PlayerStateMachine();
+
+        Stream(String url, FakeHikVideoPlayer player) {
+            this.url = url;
+            this.player = player;
+        }
+    }
+
+    LoadTest(Map<String, String> options) {
+        mStreams = Integer.parseInt(option(options, "streams", "400"));
+        mRounds = Integer.parseInt(option(options, "rounds", "5"));
+        mRestarts = Math.max(1, Integer.parseInt(option(options, "restarts", "3")));
+        mConnectLatencyMs = Long.parseLong(option(options, "connectLatency", "20"));
+        mFailRate = Double.parseDouble(option(options, "failRate", "0.1"));
+        mThreads = Integer.parseInt(option(options, "threads", "4"));
+        mDurationMs = Long.parseLong(option(options, "duration", "2000"));
+        mSeed = Long.parseLong(option(options, "seed", "1"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index <= 0) {
+                throw new IllegalArgumentException("expected key=value: " + arg);
+            }
+            options.put(arg.substring(0, index), arg.substring(index + 1));
+        }
+        LoadTest test = new LoadTest(options);
+        boolean passed = test.run();
+        //PlayerTaskExecutor 的线程不是守护线程
+        System.exit(passed ? 0 : 1);
+    }
+
+    boolean run() throws InterruptedException, JSONException {
+        createStreams();
+        print("# streams=%d rounds=%d restarts=%d connectLatency=%d-%dms failRate=%.2f cpus=%d",
+                mStreams, mRounds, mRestarts, mConnectLatencyMs, mConnectLatencyMs * 2, mFailRate,
+                Runtime.getRuntime().availableProcessors());
+        runScheduler();
+        runStateMachine();
+        print("violations=%d lost=%d", mViolations.get(), mLost);
+        return mViolations.get() == 0 && mLost == 0;
+    }
+
+    /**
+     * 每路的开流耗时和是否失败由随机数种子决定，同样的参数每次运行的脚本相同
+     */
+    private void createStreams() throws JSONException {
+        Random random = new Random(mSeed);
+        for (int i = 0; i < mStreams; i++) {
+            JSONObject script = new JSONObject();
+            script.put("connectLatency", mConnectLatencyMs + (long) (random.nextDouble() * mConnectLatencyMs));
+            script.put("fail", random.nextDouble() < mFailRate);
+            script.put("frameInterval", 40);
+            String url = String.format(Locale.ROOT, "rtsp://10.0.%d.%d:554/openUrl/load", i / 250, i % 250);
+            mStreamList.add(new Stream(url, new FakeHikVideoPlayer(new FakeHikVideoPlayer.Script(script))));
+        }
+    }
+
+    private void runScheduler() throws InterruptedException {
+        long totalResults = 0;
+        long totalNanos = 0;
+        for (int round = 1; round <= mRounds; round++) {
+            final AtomicInteger connects = new AtomicInteger();
+            final AtomicInteger successes = new AtomicInteger();
+            final AtomicInteger failures = new AtomicInteger();
+            final long[] latencies = new long[mStreams];
+            final CountDownLatch results = new CountDownLatch(mStreams);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < mStreams; i++) {
+                startPlay(i, connects, successes, failures, latencies, results);
+            }
+            if (!results.await(ROUND_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                mLost += results.getCount();
+            }
+            long startNanos = System.nanoTime() - start;
+
+            long stopStart = System.nanoTime();
+            stopAll();
+            long stopNanos = System.nanoTime() - stopStart;
+
+            int delivered = successes.get() + failures.get();
+            totalResults += delivered;
+            totalNanos += startNanos;
+            Arrays.sort(latencies);
+            print("round %d: %d results in %d ms (%.0f/s), success %d, failed %d, connects %d, superseded %d, "
+                            + "latency p50 %d ms p95 %d ms p99 %d ms max %d ms, stop %d in %d ms",
+                    round, delivered, TimeUnit.NANOSECONDS.toMillis(startNanos), delivered * 1e9 / startNanos,
+                    successes.get(), failures.get(), connects.get(), mStreams * mRestarts - delivered,
+                    percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99),
+                    percentile(latencies, 100), mStreams, TimeUnit.NANOSECONDS.toMillis(stopNanos));
+        }
+        print("scheduler: %d results in %d ms, %.0f results/s", totalResults, TimeUnit.NANOSECONDS.toMillis(totalNanos),
+                totalResults * 1e9 / totalNanos);
+    }
+
+    /**
+     * 连续开流 restarts 次，只有最后一次应该回调结果
+     */
+    private void startPlay(final int index, final AtomicInteger connects, final AtomicInteger successes,
+                           final AtomicInteger failures, final long[] latencies, final CountDownLatch results) {
+        final Stream stream = mStreamList.get(index);
+        stream.state.moveTo(PlayerStatus.LOADING);
+        for (int i = 0; i < mRestarts; i++) {
+            final long submitTime = System.nanoTime();
+            final boolean last = i == mRestarts - 1;
+            PlayerTaskExecutor.getInstance().startPlay(stream.player, new PlayerTaskExecutor.StartTask() {
+                @Override
+                public boolean start(HikVideoPlayerCallback callback) {
+                    connects.incrementAndGet();
+                    return stream.player.startRealPlay(stream.url, callback);
+                }
+            }, new HikVideoPlayerCallback() {
+                @Override
+                public void onPlayerStatus(@NonNull Status status, int errorCode) {
+                    if (!last || !stream.state.transition(PlayerStatus.LOADING, PlayerStateMachine.of(status))) {
+                        mViolations.incrementAndGet();
+                        return;
+                    }
+                    latencies[index] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitTime);
+                    (status == Status.SUCCESS ? successes : failures).incrementAndGet();
+                    results.countDown();
+                }
+            });
+        }
+    }
+
+    private void stopAll() throws InterruptedException {
+        final CountDownLatch stopped = new CountDownLatch(mStreams);
+        for (final Stream stream : mStreamList) {
+            stream.state.moveTo(PlayerStatus.STOPPING);
+            PlayerTaskExecutor.getInstance().stopPlay(stream.player);
+            PlayerTaskExecutor.getInstance().execute(stream.player, new Runnable() {
+                @Override
+                public void run() {
+                    stream.state.transition(PlayerStatus.STOPPING, PlayerStatus.IDLE);
+                    stopped.countDown();
+                }
+            });
+        }
+        if (!stopped.await(ROUND_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            mLost += stopped.getCount();
+        }
+    }
+
+    /**
+     * 各线程从不同的窗口开始，依次驱动所有窗口，相邻线程会竞争同一个状态机
+     */
+    private void runStateMachine() throws InterruptedException {
+        final LongAdder notified = new LongAdder();
+        for (Stream stream : mStreamList) {
+            stream.state.addListener(new PlayerStateMachine.OnStatusChangeListener() {
+                @Override
+                public void onStatusChange(PlayerStatus from, PlayerStatus to) {
+                    notified.increment();
+                }
+            });
+        }
+        final LongAdder attempts = new LongAdder();
+        final LongAdder accepted = new LongAdder();
+        final CountDownLatch ready = new CountDownLatch(mThreads);
+        final CountDownLatch go = new CountDownLatch(1);
+        final long[] deadline = new long[1];
+        Thread[] threads = new Thread[mThreads];
+        for (int t = 0; t < mThreads; t++) {
+            final int offset = t * mStreams / mThreads;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    ready.countDown();
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long localAttempts = 0;
+                    long localAccepted = 0;
+                    for (int i = offset; System.nanoTime() < deadline[0]; i = (i + 1) % mStreams) {
+                        PlayerStateMachine state = mStreamList.get(i).state;
+                        localAccepted += state.moveTo(PlayerStatus.LOADING) ? 1 : 0;
+                        localAccepted += state.transition(PlayerStatus.LOADING, PlayerStatus.SUCCESS) ? 1 : 0;
+                        localAccepted += state.transitionFrom(PlayerStateMachine.ACTIVE, PlayerStatus.STOPPING) ? 1 : 0;
+                        localAccepted += state.transition(PlayerStatus.STOPPING, PlayerStatus.IDLE) ? 1 : 0;
+                        localAttempts += 4;
+                    }
+                    attempts.add(localAttempts);
+                    accepted.add(localAccepted);
+                }
+            }, "load-state-" + t);
+            threads[t].start();
+        }
+        ready.await();
+        long start = System.nanoTime();
+        deadline[0] = start + TimeUnit.MILLISECONDS.toNanos(mDurationMs);
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long nanos = System.nanoTime() - start;
+        if (notified.sum() != accepted.sum()) {
+            mViolations.incrementAndGet();
+        }
+        print("state machine: %d threads, %d ms, %d transitions (%.2fM/s), %d attempts (%.2fM/s), rejected %.1f%%, "
+                        + "listener calls %d",
+                mThreads, TimeUnit.NANOSECONDS.toMillis(nanos), accepted.sum(), accepted.sum() * 1e3 / nanos,
+                attempts.sum(), attempts.sum() * 1e3 / nanos,
+                100.0 * (attempts.sum() - accepted.sum()) / attempts.sum(), notified.sum());
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static String option(Map<String, String> options, String key, String defaultValue) {
+        String value = options.get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    private static void print(String format, Object... args) {
+        System.out.println(String.format(Locale.ROOT, format, args));
+    }
+}
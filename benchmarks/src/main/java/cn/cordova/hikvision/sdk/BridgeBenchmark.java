@@ -0,0 +1,105 @@
+package cn.cordova.hikvision.sdk;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JS 桥调用在插件中的开销：参数解析、命令查找和执行
+ * <p>
+ * cordova 收到的参数是 JSON 字符串，先解析为 JSONArray 再调用 execute，每次调用创建新的 CallbackContext；
+ * 插件线程池在调用线程中直接执行，execute 返回时命令已经回调。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BridgeBenchmark {
+    private static final String SHOW_ARGS = "[{\"id\":\"bench\",\"url\":\"rtsp://10.0.0.1:554/bench\","
+            + "\"title\":\"bench\",\"rect\":{\"x\":0,\"y\":120,\"width\":360,\"height\":202}}]";
+    /**
+     * 网页滚动时更新播放窗口的位置，交替使用两个位置
+     */
+    private static final String[] UPDATE_ARGS = {
+            "[{\"id\":\"bench\",\"rect\":{\"x\":0,\"y\":118.5,\"width\":360,\"height\":202}}]",
+            "[{\"id\":\"bench\",\"rect\":{\"x\":0,\"y\":121.5,\"width\":360,\"height\":202}}]"
+    };
+    private static final String EMPTY_ARGS = "[]";
+
+    private DirectCordova mCordova;
+    private HikVisionSDK mPlugin;
+    private int mCallbackId = 0;
+
+    @Setup
+    public void setup() throws JSONException {
+        mCordova = new DirectCordova();
+        mPlugin = mCordova.initialize(new HikVisionSDK());
+        CallbackContext callbackContext = newCallbackContext();
+        mPlugin.execute("showInlineVideo", new JSONArray(SHOW_ARGS), callbackContext);
+        PluginResult result = callbackContext.getResult();
+        if (result == null || result.getStatus() != PluginResult.Status.OK.ordinal()) {
+            throw new IllegalStateException("showInlineVideo failed: " + (result == null ? null : result.getMessage()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mPlugin.onDestroy();
+    }
+
+    /**
+     * 只解析参数
+     */
+    @Benchmark
+    public JSONArray parseArgs() throws JSONException {
+        return new JSONArray(UPDATE_ARGS[mCallbackId++ & 1]);
+    }
+
+    /**
+     * 解析参数、查找命令并更新播放窗口位置
+     */
+    @Benchmark
+    public PluginResult updateInlineVideo() throws JSONException {
+        CallbackContext callbackContext = newCallbackContext();
+        mPlugin.execute("updateInlineVideo", new JSONArray(UPDATE_ARGS[mCallbackId & 1]), callbackContext);
+        return callbackContext.getResult();
+    }
+
+    /**
+     * 没有参数的查询命令
+     */
+    @Benchmark
+    public PluginResult getReconnectStats() throws JSONException {
+        CallbackContext callbackContext = newCallbackContext();
+        mPlugin.execute("getReconnectStats", new JSONArray(EMPTY_ARGS), callbackContext);
+        return callbackContext.getResult();
+    }
+
+    /**
+     * 不存在的命令，execute 返回 false
+     */
+    @Benchmark
+    public boolean unknownAction() throws JSONException {
+        return mPlugin.execute("noSuchAction", new JSONArray(EMPTY_ARGS), newCallbackContext());
+    }
+
+    private CallbackContext newCallbackContext() {
+        return new CallbackContext("HikVisionSDK" + mCallbackId++, mCordova);
+    }
+}
@@ -0,0 +1,143 @@
+package cn.cordova.hikvision.sdk;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 命令分发方式的比较：原来每次调用都通过反射查找方法，if/else 逐个比较命令名，以及现在的命令表
+ * <p>
+ * 三种方式都和 execute 一样把命令提交到插件线程池（在调用线程中直接执行），执行同一个插件方法，
+ * 只有查找命令的方式不同。if/else 的顺序与命令表的注册顺序一致。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    /**
+     * 命令表中的第 8 个和第 11 个命令
+     */
+    @Param({"getReconnectStats", "unsubscribeEvents"})
+    public String action;
+
+    private DirectCordova mCordova;
+    private HikVisionSDK mPlugin;
+    private final JSONArray mData = new JSONArray();
+    private int mCallbackId = 0;
+
+    @Setup
+    public void setup() {
+        mCordova = new DirectCordova();
+        mPlugin = mCordova.initialize(new HikVisionSDK());
+    }
+
+    /**
+     * 修改前的 execute：getDeclaredMethod 查找后 invoke
+     */
+    @Benchmark
+    public PluginResult reflection() {
+        final CallbackContext callbackContext = newCallbackContext();
+        mPlugin.cordova.getThreadPool().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Method method = HikVisionSDK.class.getDeclaredMethod(action, JSONArray.class, CallbackContext.class);
+                    method.invoke(mPlugin, mData, callbackContext);
+                } catch (Exception e) {
+                    callbackContext.error(e.toString());
+                }
+            }
+        });
+        return callbackContext.getResult();
+    }
+
+    @Benchmark
+    public PluginResult ifElse() {
+        final CallbackContext callbackContext = newCallbackContext();
+        mPlugin.cordova.getThreadPool().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    dispatch(action, mData, callbackContext);
+                } catch (JSONException e) {
+                    callbackContext.error(e.toString());
+                }
+            }
+        });
+        return callbackContext.getResult();
+    }
+
+    /**
+     * 现在的 execute：从命令表中查找
+     */
+    @Benchmark
+    public PluginResult commandTable() throws JSONException {
+        CallbackContext callbackContext = newCallbackContext();
+        mPlugin.execute(action, mData, callbackContext);
+        return callbackContext.getResult();
+    }
+
+    private void dispatch(String action, JSONArray data, CallbackContext callbackContext) throws JSONException {
+        if ("init".equals(action)) {
+            mPlugin.init(data, callbackContext);
+        } else if ("provideHikVideoPlayer".equals(action)) {
+            mPlugin.provideHikVideoPlayer(data, callbackContext);
+        } else if ("showHikVideoPage".equals(action)) {
+            mPlugin.showHikVideoPage(data, callbackContext);
+        } else if ("showHikPlaybackPage".equals(action)) {
+            mPlugin.showHikPlaybackPage(data, callbackContext);
+        } else if ("seekPlayback".equals(action)) {
+            mPlugin.seekPlayback(data, callbackContext);
+        } else if ("pausePlayback".equals(action)) {
+            mPlugin.pausePlayback(data, callbackContext);
+        } else if ("resumePlayback".equals(action)) {
+            mPlugin.resumePlayback(data, callbackContext);
+        } else if ("getReconnectStats".equals(action)) {
+            mPlugin.getReconnectStats(data, callbackContext);
+        } else if ("getStreamStats".equals(action)) {
+            mPlugin.getStreamStats(data, callbackContext);
+        } else if ("subscribeEvents".equals(action)) {
+            mPlugin.subscribeEvents(data, callbackContext);
+        } else if ("unsubscribeEvents".equals(action)) {
+            mPlugin.unsubscribeEvents(data, callbackContext);
+        } else if ("batch".equals(action)) {
+            mPlugin.batch(data, callbackContext);
+        } else if ("showInlineVideo".equals(action)) {
+            mPlugin.showInlineVideo(data, callbackContext);
+        } else if ("updateInlineVideo".equals(action)) {
+            mPlugin.updateInlineVideo(data, callbackContext);
+        } else if ("hideInlineVideo".equals(action)) {
+            mPlugin.hideInlineVideo(data, callbackContext);
+        } else if ("capturePicture".equals(action)) {
+            mPlugin.capturePicture(data, callbackContext);
+        } else if ("getThumbnails".equals(action)) {
+            mPlugin.getThumbnails(data, callbackContext);
+        } else if ("queryMedia".equals(action)) {
+            mPlugin.queryMedia(data, callbackContext);
+        } else {
+            callbackContext.error("unknown action " + action);
+        }
+    }
+
+    private CallbackContext newCallbackContext() {
+        return new CallbackContext("HikVisionSDK" + mCallbackId++, mCordova);
+    }
+}
@@ -0,0 +1,42 @@
+package cn.cordova.hikvision.sdk;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 抓图、录像文件名的生成，连拍时每张图调用一次
+ * <p>
+ * String.format 需要较长时间才能完成编译优化，预热次数比其他基准测试多。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MyUtilsBenchmark {
+    private String mName = "camera01";
+    private String mEmptyName = "";
+
+    @Benchmark
+    public String getFileName() {
+        return MyUtils.getFileName(mName);
+    }
+
+    /**
+     * 录像文件名没有监控点名称
+     */
+    @Benchmark
+    public String getFileNameEmpty() {
+        return MyUtils.getFileName(mEmptyName);
+    }
+}
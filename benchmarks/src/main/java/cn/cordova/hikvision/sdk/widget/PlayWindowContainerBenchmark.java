@@ -0,0 +1,166 @@
+package cn.cordova.hikvision.sdk.widget;
+
+import android.app.Activity;
+import android.view.MotionEvent;
+
+import com.hikvision.open.hikvideoplayer.CustomRect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 电子放大手势的区域计算：spacing、scale、judge、move、midPoint，以及一次合并了历史采样的双指缩放 MOVE 事件
+ * <p>
+ * 容器大小 1920x1080，已经放大到 3 倍左右；区域变化只标记到下一帧，基准测试中不执行帧回调。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayWindowContainerBenchmark {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    /**
+     * 一个 MOVE 事件中的采样数，120Hz 触摸屏在 60Hz 刷新时通常为 2，这里按高采样率的 5 个计算
+     */
+    private static final int SAMPLES = 5;
+    /**
+     * 每个采样两指间距离的变化
+     */
+    private static final float SAMPLE_STEP = 20;
+
+    private final PlayWindowContainer.OnDigitalScaleChangeListener mListener = new PlayWindowContainer.OnDigitalScaleChangeListener() {
+        @Override
+        public void onDigitalScaleChange(float scale) {
+            mLastScale = scale;
+        }
+
+        @Override
+        public void onDigitalRectChange(CustomRect oRect, CustomRect curRect) {
+        }
+    };
+
+    private PlayWindowContainer mContainer;
+    private PlayWindowContainer mTouchContainer;
+    private final CustomRect mOriginalRect = new CustomRect();
+    private final CustomRect mVirtualRect = new CustomRect();
+
+    private float mX0 = 420;
+    private float mY0 = 260;
+    private float mX1 = 1280;
+    private float mY1 = 790;
+    private float mDelta = 12;
+    private boolean mToggle = false;
+    private float mLastScale;
+
+    private MotionEvent mSpreadEvent;
+    private MotionEvent mPinchEvent;
+
+    @Setup
+    public void setup() {
+        mContainer = new PlayWindowContainer(new Activity());
+        mContainer.layout(0, 0, WIDTH, HEIGHT);
+        mContainer.setOnScaleChangeListener(mListener);
+        mContainer.midPoint(WIDTH / 2f, HEIGHT / 2f);
+        mContainer.scale(3);
+        mOriginalRect.setValue(0, 0, WIDTH, HEIGHT);
+
+        mTouchContainer = new PlayWindowContainer(new Activity());
+        mTouchContainer.layout(0, 0, WIDTH, HEIGHT);
+        mTouchContainer.setAllowOpenDigitalZoom(true);
+        mTouchContainer.setOnScaleChangeListener(mListener);
+        //单指按下，第二个手指按下，两指分开超过开启阈值后开启电子放大，再放大到 3 倍
+        mTouchContainer.onTouchEvent(pointers(MotionEvent.ACTION_DOWN, 200));
+        mTouchContainer.onTouchEvent(pointers(MotionEvent.ACTION_POINTER_DOWN | (1 << MotionEvent.ACTION_POINTER_INDEX_SHIFT), 200));
+        mTouchContainer.onTouchEvent(pointers(MotionEvent.ACTION_MOVE, 700));
+        mTouchContainer.onTouchEvent(pinch(700, 1100, 20));
+        if (mLastScale < 2.9f) {
+            throw new IllegalStateException("digital zoom not open, scale " + mLastScale);
+        }
+        mSpreadEvent = pinch(1100, 1100 + SAMPLES * SAMPLE_STEP, SAMPLES);
+        mPinchEvent = pinch(1100 + SAMPLES * SAMPLE_STEP, 1100, SAMPLES);
+    }
+
+    @Benchmark
+    public float spacing() {
+        return PlayWindowContainer.spacing(mX0, mY0, mX1, mY1);
+    }
+
+    /**
+     * 放大区域超出左上边界，judge 需要修正两个方向
+     */
+    @Benchmark
+    public CustomRect judge() {
+        mVirtualRect.setValue(mDelta, mDelta, mDelta + WIDTH * 2, mDelta + HEIGHT * 2);
+        mContainer.judge(mOriginalRect, mVirtualRect);
+        return mVirtualRect;
+    }
+
+    /**
+     * 在 3 倍和 4 倍之间交替缩放
+     */
+    @Benchmark
+    public void scale() {
+        mToggle = !mToggle;
+        mContainer.scale(mToggle ? 3 : 4);
+    }
+
+    /**
+     * 来回拖动
+     */
+    @Benchmark
+    public void move() {
+        mToggle = !mToggle;
+        float delta = mToggle ? mDelta : -mDelta;
+        mContainer.move(mX0, mY0, mX0 + delta, mY0 + delta);
+    }
+
+    @Benchmark
+    public void midPoint() {
+        mContainer.midPoint((mX0 + mX1) / 2, (mY0 + mY1) / 2);
+    }
+
+    /**
+     * 一个包含 5 个采样的双指 MOVE 事件，交替放大和缩小，每个采样执行一次 spacing、scale、judge、midPoint
+     */
+    @Benchmark
+    public float pinchMoveEvent() {
+        mToggle = !mToggle;
+        mTouchContainer.onTouchEvent(mToggle ? mSpreadEvent : mPinchEvent);
+        return mLastScale;
+    }
+
+    /**
+     * 两指以画面中心对称分开 distance
+     */
+    private static MotionEvent pointers(int action, float distance) {
+        float[][] pointers = action == MotionEvent.ACTION_DOWN
+                ? new float[][]{{(WIDTH - distance) / 2, HEIGHT / 2f}}
+                : new float[][]{{(WIDTH - distance) / 2, HEIGHT / 2f}, {(WIDTH + distance) / 2, HEIGHT / 2f}};
+        return MotionEvent.obtain(0, action, new float[][][]{pointers});
+    }
+
+    /**
+     * 两指间距离从 from 均匀变化到 to 的 MOVE 事件，最后一个采样是当前位置
+     */
+    private static MotionEvent pinch(float from, float to, int samples) {
+        float[][][] coords = new float[samples][][];
+        for (int i = 0; i < samples; i++) {
+            float distance = from + (to - from) * (i + 1) / samples;
+            coords[i] = new float[][]{{(WIDTH - distance) / 2, HEIGHT / 2f}, {(WIDTH + distance) / 2, HEIGHT / 2f}};
+        }
+        return MotionEvent.obtain(0, MotionEvent.ACTION_MOVE, coords);
+    }
+}
@@ -0,0 +1,97 @@
+package android.app;
+
+import android.content.ContextWrapper;
+import android.content.Intent;
+import android.content.res.Configuration;
+import android.os.Bundle;
+import android.view.View;
+import android.view.Window;
+
+/**
+ * 没有窗口，runOnUiThread 在调用线程中直接执行
+ */
+public class Activity extends ContextWrapper {
+    private Intent mIntent = new Intent();
+    private boolean mFinished;
+    private final Window mWindow = new Window() {
+        private final View mDecorView = new View(Activity.this);
+
+        @Override
+        public View getDecorView() {
+            return mDecorView;
+        }
+    };
+
+    public Activity() {
+        super(null);
+    }
+
+    public Intent getIntent() {
+        return mIntent;
+    }
+
+    public void setIntent(Intent intent) {
+        mIntent = intent;
+    }
+
+    public Window getWindow() {
+        return mWindow;
+    }
+
+    public void setContentView(int layoutResID) {
+    }
+
+    public void setContentView(View view) {
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends View> T findViewById(int id) {
+        return null;
+    }
+
+    public void setRequestedOrientation(int requestedOrientation) {
+    }
+
+    public final void runOnUiThread(Runnable action) {
+        action.run();
+    }
+
+    public void finish() {
+        mFinished = true;
+    }
+
+    public boolean isFinishing() {
+        return mFinished;
+    }
+
+    protected void onCreate(Bundle savedInstanceState) {
+    }
+
+    protected void onNewIntent(Intent intent) {
+    }
+
+    protected void onStart() {
+    }
+
+    protected void onResume() {
+    }
+
+    protected void onPause() {
+    }
+
+    protected void onStop() {
+    }
+
+    protected void onDestroy() {
+    }
+
+    protected void onSaveInstanceState(Bundle outState) {
+    }
+
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    public void onBackPressed() {
+        finish();
+    }
+}
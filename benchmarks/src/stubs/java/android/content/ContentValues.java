@@ -0,0 +1,28 @@
+package android.content;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class ContentValues {
+    private final Map<String, Object> mValues = new HashMap<>();
+
+    public void put(String key, String value) {
+        mValues.put(key, value);
+    }
+
+    public void put(String key, Integer value) {
+        mValues.put(key, value);
+    }
+
+    public void put(String key, Long value) {
+        mValues.put(key, value);
+    }
+
+    public void putNull(String key) {
+        mValues.put(key, null);
+    }
+
+    public Object get(String key) {
+        return mValues.get(key);
+    }
+}
@@ -0,0 +1,57 @@
+package android.content;
+
+import java.io.File;
+
+/**
+ * 文件目录指向 java.io.tmpdir 下的 hik-benchmark 目录
+ */
+public abstract class Context {
+    public static final String CONNECTIVITY_SERVICE = "connectivity";
+    public static final String WINDOW_SERVICE = "window";
+
+    private static final File ROOT = new File(System.getProperty("java.io.tmpdir"), "hik-benchmark");
+
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    public File getCacheDir() {
+        return dir("cache");
+    }
+
+    public File getExternalCacheDir() {
+        return dir("external-cache");
+    }
+
+    public File getFilesDir() {
+        return dir("files");
+    }
+
+    public File getExternalFilesDir(String type) {
+        return dir(type == null ? "external-files" : "external-files/" + type);
+    }
+
+    public Object getSystemService(String name) {
+        return null;
+    }
+
+    public Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter) {
+        return null;
+    }
+
+    public void unregisterReceiver(BroadcastReceiver receiver) {
+    }
+
+    public void startActivity(Intent intent) {
+    }
+
+    public String getPackageName() {
+        return "your.app.package.name";
+    }
+
+    private static File dir(String name) {
+        File file = new File(ROOT, name);
+        file.mkdirs();
+        return file;
+    }
+}
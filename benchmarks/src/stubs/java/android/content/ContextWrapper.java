@@ -0,0 +1,13 @@
+package android.content;
+
+public class ContextWrapper extends Context {
+    private Context mBase;
+
+    public ContextWrapper(Context base) {
+        mBase = base;
+    }
+
+    public Context getBaseContext() {
+        return mBase;
+    }
+}
@@ -0,0 +1,90 @@
+package android.content;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class Intent {
+    public static final int FLAG_ACTIVITY_NEW_TASK = 0x10000000;
+
+    private final Map<String, Object> mExtras = new HashMap<>();
+    private String mAction;
+
+    public Intent() {
+    }
+
+    public Intent(String action) {
+        mAction = action;
+    }
+
+    public Intent(Context context, Class<?> cls) {
+    }
+
+    public String getAction() {
+        return mAction;
+    }
+
+    public Intent setAction(String action) {
+        mAction = action;
+        return this;
+    }
+
+    public Intent addFlags(int flags) {
+        return this;
+    }
+
+    public Intent setFlags(int flags) {
+        return this;
+    }
+
+    public Intent putExtra(String name, String value) {
+        mExtras.put(name, value);
+        return this;
+    }
+
+    public Intent putExtra(String name, boolean value) {
+        mExtras.put(name, value);
+        return this;
+    }
+
+    public Intent putExtra(String name, int value) {
+        mExtras.put(name, value);
+        return this;
+    }
+
+    public Intent putExtra(String name, long value) {
+        mExtras.put(name, value);
+        return this;
+    }
+
+    public Intent putExtra(String name, String[] value) {
+        mExtras.put(name, value);
+        return this;
+    }
+
+    public String[] getStringArrayExtra(String name) {
+        return (String[]) mExtras.get(name);
+    }
+
+    public String getStringExtra(String name) {
+        return (String) mExtras.get(name);
+    }
+
+    public boolean getBooleanExtra(String name, boolean defaultValue) {
+        Object value = mExtras.get(name);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    public int getIntExtra(String name, int defaultValue) {
+        Object value = mExtras.get(name);
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+
+    public long getLongExtra(String name, long defaultValue) {
+        Object value = mExtras.get(name);
+        return value instanceof Long ? (Long) value : defaultValue;
+    }
+
+    public boolean hasExtra(String name) {
+        return mExtras.containsKey(name);
+    }
+}
@@ -0,0 +1,13 @@
+package android.content;
+
+public class IntentFilter {
+    private final String mAction;
+
+    public IntentFilter(String action) {
+        mAction = action;
+    }
+
+    public final String getAction(int index) {
+        return mAction;
+    }
+}
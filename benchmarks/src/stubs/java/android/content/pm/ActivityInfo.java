@@ -0,0 +1,8 @@
+package android.content.pm;
+
+public class ActivityInfo {
+    public static final int SCREEN_ORIENTATION_UNSPECIFIED = -1;
+    public static final int SCREEN_ORIENTATION_LANDSCAPE = 0;
+    public static final int SCREEN_ORIENTATION_PORTRAIT = 1;
+    public static final int SCREEN_ORIENTATION_SENSOR = 4;
+}
@@ -0,0 +1,21 @@
+package android.content.res;
+
+import android.util.DisplayMetrics;
+
+public class Resources {
+    private static final Resources sSystem = new Resources();
+    private final DisplayMetrics mMetrics = new DisplayMetrics();
+    private final Configuration mConfiguration = new Configuration();
+
+    public static Resources getSystem() {
+        return sSystem;
+    }
+
+    public DisplayMetrics getDisplayMetrics() {
+        return mMetrics;
+    }
+
+    public Configuration getConfiguration() {
+        return mConfiguration;
+    }
+}
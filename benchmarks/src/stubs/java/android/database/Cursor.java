@@ -0,0 +1,24 @@
+package android.database;
+
+import java.io.Closeable;
+
+public interface Cursor extends Closeable {
+    boolean moveToNext();
+
+    int getColumnIndex(String columnName);
+
+    int getColumnIndexOrThrow(String columnName);
+
+    String getString(int columnIndex);
+
+    int getInt(int columnIndex);
+
+    long getLong(int columnIndex);
+
+    boolean isNull(int columnIndex);
+
+    int getCount();
+
+    @Override
+    void close();
+}
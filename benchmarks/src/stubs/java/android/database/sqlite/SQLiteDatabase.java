@@ -0,0 +1,36 @@
+package android.database.sqlite;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+/**
+ * 没有实际的数据库，写入被丢弃，查询返回 null
+ */
+public final class SQLiteDatabase {
+    public static final int CONFLICT_REPLACE = 5;
+
+    public void execSQL(String sql) {
+    }
+
+    public long insertWithOnConflict(String table, String nullColumnHack, ContentValues values, int conflictAlgorithm) {
+        return -1;
+    }
+
+    public int delete(String table, String whereClause, String[] whereArgs) {
+        return 0;
+    }
+
+    public Cursor query(String table, String[] columns, String selection, String[] selectionArgs,
+                        String groupBy, String having, String orderBy, String limit) {
+        return null;
+    }
+
+    public Cursor query(String table, String[] columns, String selection, String[] selectionArgs,
+                        String groupBy, String having, String orderBy) {
+        return null;
+    }
+
+    public Cursor rawQuery(String sql, String[] selectionArgs) {
+        return null;
+    }
+}
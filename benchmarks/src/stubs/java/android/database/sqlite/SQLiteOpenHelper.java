@@ -0,0 +1,25 @@
+package android.database.sqlite;
+
+import android.content.Context;
+
+public abstract class SQLiteOpenHelper {
+    private final SQLiteDatabase mDatabase = new SQLiteDatabase();
+
+    public SQLiteOpenHelper(Context context, String name, Object factory, int version) {
+    }
+
+    public SQLiteDatabase getWritableDatabase() {
+        return mDatabase;
+    }
+
+    public SQLiteDatabase getReadableDatabase() {
+        return mDatabase;
+    }
+
+    public void close() {
+    }
+
+    public abstract void onCreate(SQLiteDatabase db);
+
+    public abstract void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion);
+}
@@ -0,0 +1,65 @@
+package android.graphics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 只记录尺寸，compress 写入空内容
+ */
+public final class Bitmap {
+    public enum Config {
+        ALPHA_8, RGB_565, ARGB_4444, ARGB_8888
+    }
+
+    public enum CompressFormat {
+        JPEG, PNG, WEBP
+    }
+
+    private final int mWidth;
+    private final int mHeight;
+    private final Config mConfig;
+    private boolean mRecycled;
+
+    private Bitmap(int width, int height, Config config) {
+        mWidth = width;
+        mHeight = height;
+        mConfig = config;
+    }
+
+    public static Bitmap createBitmap(int width, int height, Config config) {
+        return new Bitmap(width, height, config);
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public int getByteCount() {
+        return mWidth * mHeight * (mConfig == Config.ARGB_8888 ? 4 : 2);
+    }
+
+    public int getAllocationByteCount() {
+        return getByteCount();
+    }
+
+    public boolean compress(CompressFormat format, int quality, OutputStream stream) {
+        try {
+            stream.write(new byte[0]);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public boolean isRecycled() {
+        return mRecycled;
+    }
+
+    public void recycle() {
+        mRecycled = true;
+    }
+}
@@ -0,0 +1,15 @@
+package android.graphics;
+
+public class Canvas {
+    public Canvas() {
+    }
+
+    public Canvas(Bitmap bitmap) {
+    }
+
+    public void drawColor(int color) {
+    }
+
+    public void drawText(String text, float x, float y, Paint paint) {
+    }
+}
@@ -0,0 +1,27 @@
+package android.graphics;
+
+public class Matrix {
+    private float mScaleX = 1;
+    private float mScaleY = 1;
+    private float mTransX;
+    private float mTransY;
+
+    public void reset() {
+        mScaleX = 1;
+        mScaleY = 1;
+        mTransX = 0;
+        mTransY = 0;
+    }
+
+    public void setScale(float sx, float sy) {
+        reset();
+        mScaleX = sx;
+        mScaleY = sy;
+    }
+
+    public boolean postTranslate(float dx, float dy) {
+        mTransX += dx;
+        mTransY += dy;
+        return true;
+    }
+}
@@ -0,0 +1,17 @@
+package android.graphics;
+
+public class Paint {
+    public static final int ANTI_ALIAS_FLAG = 1;
+
+    public Paint() {
+    }
+
+    public Paint(int flags) {
+    }
+
+    public void setColor(int color) {
+    }
+
+    public void setTextSize(float textSize) {
+    }
+}
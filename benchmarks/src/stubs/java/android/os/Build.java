@@ -0,0 +1,20 @@
+package android.os;
+
+public class Build {
+    public static final String MODEL = "jvm";
+    public static final String MANUFACTURER = "jvm";
+
+    public static class VERSION {
+        public static final int SDK_INT = 27;
+    }
+
+    public static class VERSION_CODES {
+        public static final int JELLY_BEAN = 16;
+        public static final int JELLY_BEAN_MR1 = 17;
+        public static final int KITKAT = 19;
+        public static final int LOLLIPOP = 21;
+        public static final int M = 23;
+        public static final int N = 24;
+        public static final int O = 26;
+    }
+}
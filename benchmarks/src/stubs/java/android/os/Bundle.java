@@ -0,0 +1,16 @@
+package android.os;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class Bundle {
+    private final Map<String, Object> map = new HashMap<>();
+
+    public void putString(String key, String value) {
+        map.put(key, value);
+    }
+
+    public String getString(String key) {
+        return (String) map.get(key);
+    }
+}
@@ -0,0 +1,6 @@
+package android.os;
+
+public class Environment {
+    public static final String DIRECTORY_MOVIES = "Movies";
+    public static final String DIRECTORY_PICTURES = "Pictures";
+}
@@ -0,0 +1,84 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class Handler {
+    private final Looper mLooper;
+    private final Map<Runnable, List<ScheduledFuture<?>>> mPending = new IdentityHashMap<>();
+
+    public Handler() {
+        this(Looper.getMainLooper());
+    }
+
+    public Handler(Looper looper) {
+        mLooper = looper;
+    }
+
+    public final Looper getLooper() {
+        return mLooper;
+    }
+
+    public final boolean post(Runnable r) {
+        return postDelayed(r, 0);
+    }
+
+    public final boolean postAtTime(Runnable r, long uptimeMillis) {
+        return postDelayed(r, uptimeMillis - SystemClock.uptimeMillis());
+    }
+
+    public final boolean postDelayed(final Runnable r, long delayMillis) {
+        final ScheduledFuture<?>[] self = new ScheduledFuture<?>[1];
+        synchronized (mPending) {
+            self[0] = mLooper.mScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (mPending) {
+                        List<ScheduledFuture<?>> futures = mPending.get(r);
+                        if (futures != null && futures.remove(self[0]) && futures.isEmpty()) {
+                            mPending.remove(r);
+                        }
+                    }
+                    r.run();
+                }
+            }, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+            futures(r).add(self[0]);
+        }
+        return true;
+    }
+
+    public final void removeCallbacks(Runnable r) {
+        synchronized (mPending) {
+            List<ScheduledFuture<?>> futures = mPending.remove(r);
+            if (futures != null) {
+                for (ScheduledFuture<?> future : futures) {
+                    future.cancel(false);
+                }
+            }
+        }
+    }
+
+    public final void removeCallbacksAndMessages(Object token) {
+        synchronized (mPending) {
+            for (List<ScheduledFuture<?>> futures : mPending.values()) {
+                for (ScheduledFuture<?> future : futures) {
+                    future.cancel(false);
+                }
+            }
+            mPending.clear();
+        }
+    }
+
+    private List<ScheduledFuture<?>> futures(Runnable r) {
+        List<ScheduledFuture<?>> futures = mPending.get(r);
+        if (futures == null) {
+            futures = new ArrayList<>();
+            mPending.put(r, futures);
+        }
+        return futures;
+    }
+}
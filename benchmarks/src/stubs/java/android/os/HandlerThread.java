@@ -0,0 +1,30 @@
+package android.os;
+
+public class HandlerThread {
+    private final Looper mLooper;
+
+    public HandlerThread(String name) {
+        mLooper = new Looper(name);
+    }
+
+    public HandlerThread(String name, int priority) {
+        this(name);
+    }
+
+    public void start() {
+    }
+
+    public Looper getLooper() {
+        return mLooper;
+    }
+
+    public boolean quit() {
+        mLooper.quit();
+        return true;
+    }
+
+    public boolean quitSafely() {
+        mLooper.quitSafely();
+        return true;
+    }
+}
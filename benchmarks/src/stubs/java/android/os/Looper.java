@@ -0,0 +1,47 @@
+package android.os;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 每个 Looper 对应一个单线程的调度器，Handler 的消息在该线程中按时间顺序执行
+ */
+public final class Looper {
+    private static final Looper sMainLooper = new Looper("main");
+
+    final ScheduledExecutorService mScheduler;
+    volatile Thread mThread;
+
+    Looper(final String name) {
+        mScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                mThread = thread;
+                return thread;
+            }
+        });
+    }
+
+    public static Looper getMainLooper() {
+        return sMainLooper;
+    }
+
+    public static Looper myLooper() {
+        return Thread.currentThread() == sMainLooper.mThread ? sMainLooper : null;
+    }
+
+    public Thread getThread() {
+        return mThread;
+    }
+
+    public void quit() {
+        mScheduler.shutdownNow();
+    }
+
+    public void quitSafely() {
+        mScheduler.shutdown();
+    }
+}
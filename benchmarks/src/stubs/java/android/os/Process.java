@@ -0,0 +1,14 @@
+package android.os;
+
+public class Process {
+    public static final int THREAD_PRIORITY_DEFAULT = 0;
+    public static final int THREAD_PRIORITY_BACKGROUND = 10;
+    public static final int THREAD_PRIORITY_DISPLAY = -4;
+
+    public static void setThreadPriority(int priority) {
+    }
+
+    public static int myPid() {
+        return 0;
+    }
+}
@@ -0,0 +1,25 @@
+package android.os;
+
+public final class SystemClock {
+    private SystemClock() {
+    }
+
+    public static long uptimeMillis() {
+        return System.nanoTime() / 1000000L;
+    }
+
+    public static long elapsedRealtime() {
+        return System.nanoTime() / 1000000L;
+    }
+
+    public static void sleep(long ms) {
+        long end = uptimeMillis() + ms;
+        while (ms > 0) {
+            try {
+                Thread.sleep(ms);
+            } catch (InterruptedException ignored) {
+            }
+            ms = end - uptimeMillis();
+        }
+    }
+}
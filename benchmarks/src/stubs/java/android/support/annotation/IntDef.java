@@ -0,0 +1,11 @@
+package android.support.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+@Retention(RetentionPolicy.SOURCE)
+public @interface IntDef {
+    long[] value() default {};
+
+    boolean flag() default false;
+}
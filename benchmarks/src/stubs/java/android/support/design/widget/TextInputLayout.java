@@ -0,0 +1,18 @@
+package android.support.design.widget;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.widget.LinearLayout;
+
+public class TextInputLayout extends LinearLayout {
+    public TextInputLayout(Context context) {
+        super(context);
+    }
+
+    public TextInputLayout(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public void setError(CharSequence error) {
+    }
+}
@@ -0,0 +1,5 @@
+package android.support.v4.widget;
+
+public class ViewDragHelper {
+    public static final int INVALID_POINTER = -1;
+}
@@ -0,0 +1,7 @@
+package android.support.v7.app;
+
+public abstract class ActionBar {
+    public abstract void show();
+
+    public abstract void hide();
+}
@@ -0,0 +1,9 @@
+package android.support.v7.app;
+
+import android.app.Activity;
+
+public class AppCompatActivity extends Activity {
+    public ActionBar getSupportActionBar() {
+        return null;
+    }
+}
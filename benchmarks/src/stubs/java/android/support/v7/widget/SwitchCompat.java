@@ -0,0 +1,15 @@
+package android.support.v7.widget;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.widget.CompoundButton;
+
+public class SwitchCompat extends CompoundButton {
+    public SwitchCompat(Context context) {
+        super(context);
+    }
+
+    public SwitchCompat(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+}
@@ -0,0 +1,27 @@
+package android.text;
+
+public class TextUtils {
+    private TextUtils() {
+    }
+
+    public static boolean isEmpty(CharSequence str) {
+        return str == null || str.length() == 0;
+    }
+
+    public static boolean equals(CharSequence a, CharSequence b) {
+        return a == b || (a != null && b != null && a.toString().equals(b.toString()));
+    }
+
+    public static String join(CharSequence delimiter, Iterable tokens) {
+        StringBuilder sb = new StringBuilder();
+        boolean first = true;
+        for (Object token : tokens) {
+            if (!first) {
+                sb.append(delimiter);
+            }
+            sb.append(token);
+            first = false;
+        }
+        return sb.toString();
+    }
+}
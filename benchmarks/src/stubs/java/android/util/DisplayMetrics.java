@@ -0,0 +1,7 @@
+package android.util;
+
+public class DisplayMetrics {
+    public float density = 3f;
+    public int widthPixels = 1080;
+    public int heightPixels = 1920;
+}
@@ -0,0 +1,56 @@
+package android.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class LruCache<K, V> {
+    private final LinkedHashMap<K, V> map = new LinkedHashMap<>(0, 0.75f, true);
+    private final int maxSize;
+    private int size;
+
+    public LruCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public final synchronized V get(K key) {
+        return map.get(key);
+    }
+
+    public final synchronized V put(K key, V value) {
+        size += sizeOf(key, value);
+        V previous = map.put(key, value);
+        if (previous != null) {
+            size -= sizeOf(key, previous);
+        }
+        trimToSize(maxSize);
+        return previous;
+    }
+
+    public final synchronized V remove(K key) {
+        V previous = map.remove(key);
+        if (previous != null) {
+            size -= sizeOf(key, previous);
+        }
+        return previous;
+    }
+
+    public final synchronized void evictAll() {
+        trimToSize(-1);
+    }
+
+    public final synchronized int size() {
+        return size;
+    }
+
+    public void trimToSize(int maxSize) {
+        while (size > maxSize && !map.isEmpty()) {
+            Map.Entry<K, V> eldest = map.entrySet().iterator().next();
+            map.remove(eldest.getKey());
+            size -= sizeOf(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    protected int sizeOf(K key, V value) {
+        return 1;
+    }
+}
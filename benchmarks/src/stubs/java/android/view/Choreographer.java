@@ -0,0 +1,48 @@
+package android.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 没有 VSYNC，回调只保存在队列中，由调用方通过 {@link #doFrame(long)} 驱动
+ */
+public final class Choreographer {
+    private static final ThreadLocal<Choreographer> sThreadInstance = new ThreadLocal<Choreographer>() {
+        @Override
+        protected Choreographer initialValue() {
+            return new Choreographer();
+        }
+    };
+
+    private final List<FrameCallback> mCallbacks = new ArrayList<>();
+
+    public interface FrameCallback {
+        void doFrame(long frameTimeNanos);
+    }
+
+    private Choreographer() {
+    }
+
+    public static Choreographer getInstance() {
+        return sThreadInstance.get();
+    }
+
+    public void postFrameCallback(FrameCallback callback) {
+        mCallbacks.add(callback);
+    }
+
+    public void removeFrameCallback(FrameCallback callback) {
+        mCallbacks.remove(callback);
+    }
+
+    /**
+     * 执行当前线程已经提交的帧回调
+     */
+    public void doFrame(long frameTimeNanos) {
+        List<FrameCallback> callbacks = new ArrayList<>(mCallbacks);
+        mCallbacks.clear();
+        for (FrameCallback callback : callbacks) {
+            callback.doFrame(frameTimeNanos);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package android.view;
+
+/**
+ * 保存各触点坐标和历史采样，通过 {@link #obtain} 构造
+ */
+public final class MotionEvent {
+    public static final int ACTION_MASK = 0xff;
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+    public static final int ACTION_POINTER_DOWN = 5;
+    public static final int ACTION_POINTER_UP = 6;
+    public static final int ACTION_POINTER_INDEX_MASK = 0xff00;
+    public static final int ACTION_POINTER_INDEX_SHIFT = 8;
+
+    private int mAction;
+    private long mEventTime;
+    /**
+     * 坐标按 [采样][触点][x, y] 保存，最后一个采样是当前位置
+     */
+    private float[][][] mSamples;
+
+    private MotionEvent() {
+    }
+
+    /**
+     * @param samples 按 [采样][触点][x, y] 排列的坐标，最后一个采样是当前位置，之前的为历史采样
+     */
+    public static MotionEvent obtain(long eventTime, int action, float[][][] samples) {
+        MotionEvent event = new MotionEvent();
+        event.mEventTime = eventTime;
+        event.mAction = action;
+        event.mSamples = samples;
+        return event;
+    }
+
+    public static MotionEvent obtain(long downTime, long eventTime, int action, float x, float y, int metaState) {
+        return obtain(eventTime, action, new float[][][]{{{x, y}}});
+    }
+
+    public void recycle() {
+    }
+
+    public int getAction() {
+        return mAction;
+    }
+
+    public int getActionMasked() {
+        return mAction & ACTION_MASK;
+    }
+
+    public int getActionIndex() {
+        return (mAction & ACTION_POINTER_INDEX_MASK) >> ACTION_POINTER_INDEX_SHIFT;
+    }
+
+    public long getEventTime() {
+        return mEventTime;
+    }
+
+    public int getPointerCount() {
+        return mSamples[mSamples.length - 1].length;
+    }
+
+    public int getPointerId(int pointerIndex) {
+        return pointerIndex;
+    }
+
+    public int findPointerIndex(int pointerId) {
+        return pointerId < getPointerCount() ? pointerId : -1;
+    }
+
+    public int getHistorySize() {
+        return mSamples.length - 1;
+    }
+
+    public float getX() {
+        return getX(0);
+    }
+
+    public float getY() {
+        return getY(0);
+    }
+
+    public float getX(int pointerIndex) {
+        return mSamples[mSamples.length - 1][pointerIndex][0];
+    }
+
+    public float getY(int pointerIndex) {
+        return mSamples[mSamples.length - 1][pointerIndex][1];
+    }
+
+    public float getHistoricalX(int pointerIndex, int pos) {
+        return mSamples[pos][pointerIndex][0];
+    }
+
+    public float getHistoricalY(int pointerIndex, int pos) {
+        return mSamples[pos][pointerIndex][1];
+    }
+}
@@ -0,0 +1,23 @@
+package android.view;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.SurfaceTexture;
+
+public class Surface {
+    public static class OutOfResourcesException extends RuntimeException {
+    }
+
+    public Surface(SurfaceTexture surfaceTexture) {
+    }
+
+    public Canvas lockCanvas(Rect inOutDirty) throws OutOfResourcesException {
+        return new Canvas();
+    }
+
+    public void unlockCanvasAndPost(Canvas canvas) {
+    }
+
+    public void release() {
+    }
+}
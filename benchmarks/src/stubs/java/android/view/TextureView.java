@@ -0,0 +1,57 @@
+package android.view;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.graphics.SurfaceTexture;
+import android.util.AttributeSet;
+
+public class TextureView extends View {
+    public interface SurfaceTextureListener {
+        void onSurfaceTextureAvailable(SurfaceTexture surface, int width, int height);
+
+        void onSurfaceTextureSizeChanged(SurfaceTexture surface, int width, int height);
+
+        boolean onSurfaceTextureDestroyed(SurfaceTexture surface);
+
+        void onSurfaceTextureUpdated(SurfaceTexture surface);
+    }
+
+    private SurfaceTexture mSurfaceTexture;
+    private SurfaceTextureListener mListener;
+
+    public TextureView(Context context) {
+        super(context);
+    }
+
+    public TextureView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public boolean isAvailable() {
+        return mSurfaceTexture != null;
+    }
+
+    public SurfaceTexture getSurfaceTexture() {
+        return mSurfaceTexture;
+    }
+
+    public void setSurfaceTexture(SurfaceTexture surfaceTexture) {
+        mSurfaceTexture = surfaceTexture;
+    }
+
+    public SurfaceTextureListener getSurfaceTextureListener() {
+        return mListener;
+    }
+
+    public void setSurfaceTextureListener(SurfaceTextureListener listener) {
+        mListener = listener;
+    }
+
+    public void setTransform(Matrix transform) {
+    }
+
+    public Bitmap getBitmap(int width, int height) {
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+}
@@ -0,0 +1,211 @@
+package android.view;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.animation.Animation;
+
+/**
+ * 只保存布局位置和可见性，不做测量、绘制和事件分发
+ */
+public class View {
+    public static final int VISIBLE = 0;
+    public static final int INVISIBLE = 4;
+    public static final int GONE = 8;
+
+    public static final int SYSTEM_UI_FLAG_VISIBLE = 0;
+    public static final int SYSTEM_UI_FLAG_LOW_PROFILE = 0x00000001;
+    public static final int SYSTEM_UI_FLAG_HIDE_NAVIGATION = 0x00000002;
+    public static final int SYSTEM_UI_FLAG_FULLSCREEN = 0x00000004;
+    public static final int SYSTEM_UI_FLAG_LAYOUT_STABLE = 0x00000100;
+    public static final int SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION = 0x00000200;
+    public static final int SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN = 0x00000400;
+    public static final int SYSTEM_UI_FLAG_IMMERSIVE = 0x00000800;
+    public static final int SYSTEM_UI_FLAG_IMMERSIVE_STICKY = 0x00001000;
+
+    public interface OnClickListener {
+        void onClick(View v);
+    }
+
+    private final Context mContext;
+    private int mId;
+    private int mVisibility = VISIBLE;
+    private int mLeft;
+    private int mTop;
+    private int mRight;
+    private int mBottom;
+    private float mTranslationX;
+    private float mTranslationY;
+    private boolean mEnabled = true;
+    private ViewGroup.LayoutParams mLayoutParams;
+    ViewGroup mParent;
+
+    public View(Context context) {
+        this(context, null);
+    }
+
+    public View(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public View(Context context, AttributeSet attrs, int defStyleAttr) {
+        mContext = context;
+    }
+
+    public static View inflate(Context context, int resource, ViewGroup root) {
+        return root;
+    }
+
+    public final Context getContext() {
+        return mContext;
+    }
+
+    public int getId() {
+        return mId;
+    }
+
+    public void setId(int id) {
+        mId = id;
+    }
+
+    public int getVisibility() {
+        return mVisibility;
+    }
+
+    public void setVisibility(int visibility) {
+        mVisibility = visibility;
+    }
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    public final int getLeft() {
+        return mLeft;
+    }
+
+    public final int getTop() {
+        return mTop;
+    }
+
+    public final int getRight() {
+        return mRight;
+    }
+
+    public final int getBottom() {
+        return mBottom;
+    }
+
+    public final int getWidth() {
+        return mRight - mLeft;
+    }
+
+    public final int getHeight() {
+        return mBottom - mTop;
+    }
+
+    public float getTranslationX() {
+        return mTranslationX;
+    }
+
+    public void setTranslationX(float translationX) {
+        mTranslationX = translationX;
+    }
+
+    public float getTranslationY() {
+        return mTranslationY;
+    }
+
+    public void setTranslationY(float translationY) {
+        mTranslationY = translationY;
+    }
+
+    /**
+     * 设置位置，位置有变化时回调 onLayout
+     */
+    public void layout(int l, int t, int r, int b) {
+        boolean changed = mLeft != l || mTop != t || mRight != r || mBottom != b;
+        mLeft = l;
+        mTop = t;
+        mRight = r;
+        mBottom = b;
+        onLayout(changed, l, t, r, b);
+    }
+
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+    }
+
+    protected void onDetachedFromWindow() {
+    }
+
+    protected void onConfigurationChanged(android.content.res.Configuration newConfig) {
+    }
+
+    public boolean onTouchEvent(MotionEvent event) {
+        return false;
+    }
+
+    public ViewGroup.LayoutParams getLayoutParams() {
+        return mLayoutParams;
+    }
+
+    public void setLayoutParams(ViewGroup.LayoutParams params) {
+        mLayoutParams = params;
+    }
+
+    public final ViewParent getParent() {
+        return mParent;
+    }
+
+    public android.content.res.Resources getResources() {
+        return android.content.res.Resources.getSystem();
+    }
+
+    public void setOnClickListener(OnClickListener l) {
+    }
+
+    public void setBackgroundColor(int color) {
+    }
+
+    public void setKeepScreenOn(boolean keepScreenOn) {
+    }
+
+    public void setSystemUiVisibility(int visibility) {
+    }
+
+    public void setAnimation(Animation animation) {
+    }
+
+    public void startAnimation(Animation animation) {
+    }
+
+    public void clearAnimation() {
+    }
+
+    public void invalidate() {
+    }
+
+    public void requestLayout() {
+    }
+
+    public boolean post(Runnable action) {
+        action.run();
+        return true;
+    }
+
+    public boolean postDelayed(Runnable action, long delayMillis) {
+        return true;
+    }
+
+    public boolean removeCallbacks(Runnable action) {
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public final <T extends View> T findViewById(int id) {
+        return null;
+    }
+}
@@ -0,0 +1,99 @@
+package android.view;
+
+import android.content.Context;
+import android.util.AttributeSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public abstract class ViewGroup extends View implements ViewParent {
+    private final List<View> mChildren = new ArrayList<>();
+
+    public static class LayoutParams {
+        public static final int MATCH_PARENT = -1;
+        public static final int WRAP_CONTENT = -2;
+
+        public int width;
+        public int height;
+
+        public LayoutParams(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    public static class MarginLayoutParams extends LayoutParams {
+        public int leftMargin;
+        public int topMargin;
+        public int rightMargin;
+        public int bottomMargin;
+
+        public MarginLayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public void setMargins(int left, int top, int right, int bottom) {
+            leftMargin = left;
+            topMargin = top;
+            rightMargin = right;
+            bottomMargin = bottom;
+        }
+    }
+
+    public ViewGroup(Context context) {
+        super(context);
+    }
+
+    public ViewGroup(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public ViewGroup(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    public void addView(View child) {
+        mChildren.add(child);
+        child.mParent = this;
+    }
+
+    public void addView(View child, int index) {
+        mChildren.add(index < 0 ? mChildren.size() : index, child);
+        child.mParent = this;
+    }
+
+    public void addView(View child, LayoutParams params) {
+        child.setLayoutParams(params);
+        addView(child);
+    }
+
+    public void addView(View child, int index, LayoutParams params) {
+        child.setLayoutParams(params);
+        addView(child, index);
+    }
+
+    public void removeView(View view) {
+        if (mChildren.remove(view)) {
+            view.mParent = null;
+        }
+    }
+
+    public void removeAllViews() {
+        for (View child : mChildren) {
+            child.mParent = null;
+        }
+        mChildren.clear();
+    }
+
+    public int indexOfChild(View child) {
+        return mChildren.indexOf(child);
+    }
+
+    public int getChildCount() {
+        return mChildren.size();
+    }
+
+    public View getChildAt(int index) {
+        return mChildren.get(index);
+    }
+}
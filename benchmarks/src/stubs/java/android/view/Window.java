@@ -0,0 +1,14 @@
+package android.view;
+
+public abstract class Window {
+    public abstract View getDecorView();
+
+    public void addFlags(int flags) {
+    }
+
+    public void clearFlags(int flags) {
+    }
+
+    public void setSoftInputMode(int mode) {
+    }
+}
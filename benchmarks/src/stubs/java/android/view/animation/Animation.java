@@ -0,0 +1,26 @@
+package android.view.animation;
+
+public abstract class Animation {
+    public interface AnimationListener {
+        void onAnimationStart(Animation animation);
+
+        void onAnimationEnd(Animation animation);
+
+        void onAnimationRepeat(Animation animation);
+    }
+
+    public void setDuration(long durationMillis) {
+    }
+
+    public void setFillAfter(boolean fillAfter) {
+    }
+
+    public void setInterpolator(Interpolator i) {
+    }
+
+    public void setAnimationListener(AnimationListener listener) {
+    }
+
+    public void start() {
+    }
+}
@@ -0,0 +1,8 @@
+package android.view.animation;
+
+public class DecelerateInterpolator implements Interpolator {
+    @Override
+    public float getInterpolation(float input) {
+        return 1.0f - (1.0f - input) * (1.0f - input);
+    }
+}
@@ -0,0 +1,31 @@
+package android.widget;
+
+import android.content.Context;
+import android.util.AttributeSet;
+
+public class CompoundButton extends Button {
+    public CompoundButton(Context context) {
+        super(context);
+    }
+
+    public CompoundButton(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    private boolean mChecked;
+
+    public interface OnCheckedChangeListener {
+        void onCheckedChanged(CompoundButton buttonView, boolean isChecked);
+    }
+
+    public boolean isChecked() {
+        return mChecked;
+    }
+
+    public void setChecked(boolean checked) {
+        mChecked = checked;
+    }
+
+    public void setOnCheckedChangeListener(OnCheckedChangeListener listener) {
+    }
+}
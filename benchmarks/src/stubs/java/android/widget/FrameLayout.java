@@ -0,0 +1,32 @@
+package android.widget;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.ViewGroup;
+
+public class FrameLayout extends ViewGroup {
+    public FrameLayout(Context context) {
+        super(context);
+    }
+
+    public FrameLayout(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public FrameLayout(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    public static class LayoutParams extends ViewGroup.MarginLayoutParams {
+        public int gravity = -1;
+
+        public LayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public LayoutParams(int width, int height, int gravity) {
+            super(width, height);
+            this.gravity = gravity;
+        }
+    }
+}
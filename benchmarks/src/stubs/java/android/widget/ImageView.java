@@ -0,0 +1,32 @@
+package android.widget;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.graphics.Bitmap;
+import android.view.View;
+
+public class ImageView extends View {
+    public ImageView(Context context) {
+        super(context);
+    }
+
+    public ImageView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public enum ScaleType {
+        MATRIX, FIT_XY, FIT_START, FIT_CENTER, FIT_END, CENTER, CENTER_CROP, CENTER_INSIDE
+    }
+
+    public void setScaleType(ScaleType scaleType) {
+    }
+
+    public void setImageResource(int resId) {
+    }
+
+    public void setImageBitmap(Bitmap bm) {
+    }
+
+    public void setImageDrawable(Object drawable) {
+    }
+}
@@ -0,0 +1,39 @@
+package android.widget;
+
+import android.content.Context;
+
+/**
+ * 没有惯性滑动，fling 后立即结束
+ */
+public class OverScroller {
+    private int mCurrX;
+    private int mCurrY;
+
+    public OverScroller(Context context) {
+    }
+
+    public void fling(int startX, int startY, int velocityX, int velocityY,
+                      int minX, int maxX, int minY, int maxY) {
+        mCurrX = Math.min(maxX, Math.max(minX, startX));
+        mCurrY = Math.min(maxY, Math.max(minY, startY));
+    }
+
+    public boolean computeScrollOffset() {
+        return false;
+    }
+
+    public boolean isFinished() {
+        return true;
+    }
+
+    public void forceFinished(boolean finished) {
+    }
+
+    public int getCurrX() {
+        return mCurrX;
+    }
+
+    public int getCurrY() {
+        return mCurrY;
+    }
+}
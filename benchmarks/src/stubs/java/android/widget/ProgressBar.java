@@ -0,0 +1,34 @@
+package android.widget;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+
+public class ProgressBar extends View {
+    public ProgressBar(Context context) {
+        super(context);
+    }
+
+    public ProgressBar(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    private int mMax = 100;
+    private int mProgress;
+
+    public int getMax() {
+        return mMax;
+    }
+
+    public void setMax(int max) {
+        mMax = max;
+    }
+
+    public int getProgress() {
+        return mProgress;
+    }
+
+    public void setProgress(int progress) {
+        mProgress = progress;
+    }
+}
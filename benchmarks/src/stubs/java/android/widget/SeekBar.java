@@ -0,0 +1,25 @@
+package android.widget;
+
+import android.content.Context;
+import android.util.AttributeSet;
+
+public class SeekBar extends ProgressBar {
+    public SeekBar(Context context) {
+        super(context);
+    }
+
+    public SeekBar(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public interface OnSeekBarChangeListener {
+        void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser);
+
+        void onStartTrackingTouch(SeekBar seekBar);
+
+        void onStopTrackingTouch(SeekBar seekBar);
+    }
+
+    public void setOnSeekBarChangeListener(OnSeekBarChangeListener l) {
+    }
+}
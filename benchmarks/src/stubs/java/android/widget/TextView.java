@@ -0,0 +1,34 @@
+package android.widget;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+
+public class TextView extends View {
+    public TextView(Context context) {
+        super(context);
+    }
+
+    public TextView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    private CharSequence mText = "";
+
+    public CharSequence getText() {
+        return mText;
+    }
+
+    public void setText(CharSequence text) {
+        mText = text;
+    }
+
+    public void setText(int resid) {
+    }
+
+    public void setTextColor(int color) {
+    }
+
+    public void setTextSize(float size) {
+    }
+}
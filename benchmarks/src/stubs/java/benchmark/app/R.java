@@ -0,0 +1,49 @@
+package benchmark.app;
+
+/**
+ * 应用的资源 ID，插件安装时由宿主应用生成，这里只保留插件用到的资源
+ */
+public final class R {
+    public static final class drawable {
+        public static final int ic_maximum_white_nor_24 = 0x7f070000;
+        public static final int ic_minimum_white_nor_24 = 0x7f070001;
+    }
+
+    public static final class id {
+        public static final int auto_hide_view = 0x7f080000;
+        public static final int capture_button = 0x7f080001;
+        public static final int decode_switch = 0x7f080002;
+        public static final int digital_scale_text = 0x7f080003;
+        public static final int frame_layout = 0x7f080004;
+        public static final int pause_button = 0x7f080005;
+        public static final int playback_uri_edit = 0x7f080006;
+        public static final int progress_bar = 0x7f080007;
+        public static final int record_button = 0x7f080008;
+        public static final int record_file_path_text = 0x7f080009;
+        public static final int result_hint_text = 0x7f08000a;
+        public static final int review_uri_edit = 0x7f08000b;
+        public static final int smart_switch = 0x7f08000c;
+        public static final int sound_button = 0x7f08000d;
+        public static final int start = 0x7f08000e;
+        public static final int stop = 0x7f08000f;
+        public static final int switch_screen_view = 0x7f080010;
+        public static final int text_input_layout = 0x7f080011;
+        public static final int texture_view = 0x7f080012;
+        public static final int time_bar = 0x7f080013;
+    }
+
+    public static final class layout {
+        public static final int activity_playback = 0x7f0a0000;
+        public static final int activity_preview = 0x7f0a0001;
+        public static final int view_auto_hide = 0x7f0a0002;
+    }
+
+    public static final class string {
+        public static final int close_record = 0x7f0e0000;
+        public static final int pause = 0x7f0e0001;
+        public static final int resume = 0x7f0e0002;
+        public static final int sound_close = 0x7f0e0003;
+        public static final int sound_open = 0x7f0e0004;
+        public static final int start_record = 0x7f0e0005;
+    }
+}
@@ -0,0 +1,24 @@
+package com.blankj.utilcode.util;
+
+import android.content.res.Resources;
+
+public final class ScreenUtils {
+    private ScreenUtils() {
+    }
+
+    public static int getScreenWidth() {
+        return Resources.getSystem().getDisplayMetrics().widthPixels;
+    }
+
+    public static int getScreenHeight() {
+        return Resources.getSystem().getDisplayMetrics().heightPixels;
+    }
+
+    public static boolean isLandscape() {
+        return false;
+    }
+
+    public static boolean isPortrait() {
+        return true;
+    }
+}
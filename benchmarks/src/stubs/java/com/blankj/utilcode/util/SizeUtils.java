@@ -0,0 +1,16 @@
+package com.blankj.utilcode.util;
+
+import android.content.res.Resources;
+
+public final class SizeUtils {
+    private SizeUtils() {
+    }
+
+    public static int dp2px(float dpValue) {
+        return (int) (dpValue * Resources.getSystem().getDisplayMetrics().density + 0.5f);
+    }
+
+    public static int px2dp(float pxValue) {
+        return (int) (pxValue / Resources.getSystem().getDisplayMetrics().density + 0.5f);
+    }
+}
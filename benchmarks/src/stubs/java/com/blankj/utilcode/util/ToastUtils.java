@@ -0,0 +1,15 @@
+package com.blankj.utilcode.util;
+
+public final class ToastUtils {
+    private ToastUtils() {
+    }
+
+    public static void showShort(CharSequence text) {
+    }
+
+    public static void showShort(int resId) {
+    }
+
+    public static void showLong(CharSequence text) {
+    }
+}
@@ -0,0 +1,70 @@
+package org.apache.cordova;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * 保存最后一次结果，基准测试通过 {@link #getResult()} 消费结果
+ */
+public class CallbackContext {
+    private final String mCallbackId;
+    private final CordovaWebView mWebView;
+    private volatile PluginResult mResult;
+    private volatile boolean mFinished;
+
+    public CallbackContext(String callbackId, CordovaWebView webView) {
+        mCallbackId = callbackId;
+        mWebView = webView;
+    }
+
+    public String getCallbackId() {
+        return mCallbackId;
+    }
+
+    public boolean isFinished() {
+        return mFinished;
+    }
+
+    public PluginResult getResult() {
+        return mResult;
+    }
+
+    public void sendPluginResult(PluginResult pluginResult) {
+        synchronized (this) {
+            mFinished = !pluginResult.getKeepCallback();
+            mResult = pluginResult;
+        }
+    }
+
+    public void success() {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK));
+    }
+
+    public void success(String message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void success(JSONObject message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void success(JSONArray message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void success(int message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void error(String message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.ERROR, message));
+    }
+
+    public void error(JSONObject message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.ERROR, message));
+    }
+
+    public void error(int message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.ERROR, message));
+    }
+}
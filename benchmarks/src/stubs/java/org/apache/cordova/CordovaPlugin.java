@@ -0,0 +1,34 @@
+package org.apache.cordova;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+public class CordovaPlugin {
+    public CordovaWebView webView;
+    public CordovaInterface cordova;
+
+    public final void privateInitialize(String serviceName, CordovaInterface cordova, CordovaWebView webView) {
+        this.cordova = cordova;
+        this.webView = webView;
+        pluginInitialize();
+    }
+
+    protected void pluginInitialize() {
+    }
+
+    public boolean execute(String action, JSONArray args, CallbackContext callbackContext) throws JSONException {
+        return false;
+    }
+
+    public void onPause(boolean multitasking) {
+    }
+
+    public void onResume(boolean multitasking) {
+    }
+
+    public void onDestroy() {
+    }
+
+    public void onReset() {
+    }
+}
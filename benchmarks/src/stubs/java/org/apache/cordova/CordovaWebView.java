@@ -0,0 +1,7 @@
+package org.apache.cordova;
+
+import android.view.View;
+
+public interface CordovaWebView {
+    View getView();
+}
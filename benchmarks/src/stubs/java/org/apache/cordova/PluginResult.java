@@ -0,0 +1,83 @@
+package org.apache.cordova;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+public class PluginResult {
+    public enum Status {
+        NO_RESULT, OK, CLASS_NOT_FOUND_EXCEPTION, ILLEGAL_ACCESS_EXCEPTION, INSTANTIATION_EXCEPTION,
+        MALFORMED_URL_EXCEPTION, IO_EXCEPTION, INVALID_ACTION, JSON_EXCEPTION, ERROR
+    }
+
+    public static final String[] StatusMessages = new String[]{
+            "No result",
+            "OK",
+            "Class not found",
+            "Illegal access",
+            "Instantiation error",
+            "Malformed url",
+            "IO error",
+            "Invalid action",
+            "JSON error",
+            "Error"
+    };
+
+    private final Status mStatus;
+    private final Object mMessage;
+    private boolean mKeepCallback;
+
+    public PluginResult(Status status) {
+        this(status, StatusMessages[status.ordinal()]);
+    }
+
+    public PluginResult(Status status, String message) {
+        this(status, (Object) message);
+    }
+
+    public PluginResult(Status status, JSONObject message) {
+        this(status, (Object) message);
+    }
+
+    public PluginResult(Status status, JSONArray message) {
+        this(status, (Object) message);
+    }
+
+    public PluginResult(Status status, int i) {
+        this(status, (Object) i);
+    }
+
+    public PluginResult(Status status, boolean b) {
+        this(status, (Object) b);
+    }
+
+    private PluginResult(Status status, Object message) {
+        mStatus = status;
+        mMessage = message;
+    }
+
+    public void setKeepCallback(boolean keepCallback) {
+        mKeepCallback = keepCallback;
+    }
+
+    public boolean getKeepCallback() {
+        return mKeepCallback;
+    }
+
+    public int getStatus() {
+        return mStatus.ordinal();
+    }
+
+    /**
+     * 消息编码后的字符串，与 cordova 一致：字符串加引号转义，JSON 使用 toString
+     */
+    public String getMessage() {
+        if (mMessage instanceof String) {
+            return JSONObject.quote((String) mMessage);
+        }
+        return String.valueOf(mMessage);
+    }
+
+    public Object getMessageObject() {
+        return mMessage;
+    }
+}
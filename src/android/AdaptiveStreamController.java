@@ -0,0 +1,252 @@
+package cn.cordova.hikvision.sdk;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import android.support.annotation.WorkerThread;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+import com.hikvision.open.hikvideoplayer.HikVideoPlayerCallback;
+
+/**
+ * 主/子码流自适应切换
+ * <p>
+ * 根据渲染区域大小、网络类型和播放卡顿情况选择主码流或子码流，播放中通过 changeStream 切换，不需要重建 surface。
+ * 没有传入子码流地址时始终使用主码流。播放中监听网络变化，卡顿统计窗口结束后重新评估。
+ */
+public class AdaptiveStreamController {
+    private static final String TAG = "AdaptiveStream";
+
+    /**
+     * 渲染区域像素数小于该值（720P）时主码流的分辨率没有意义，使用子码流；
+     * 例如竖屏 250dp 高的窗口在 1080px 宽的手机上约为 1080x750
+     */
+    private static final int SUB_STREAM_MAX_AREA = 1280 * 720;
+    /**
+     * 在 STALL_WINDOW_MS 内卡顿次数达到该值后降级为子码流
+     */
+    private static final int STALL_DOWNGRADE_COUNT = 2;
+    /**
+     * 卡顿统计窗口，超过该时间没有卡顿会重新评估是否可以升级为主码流
+     */
+    private static final long STALL_WINDOW_MS = 60 * 1000;
+
+    private final HikVideoPlayer mPlayer;
+    private final String mMainUrl;
+    private final String mSubUrl;
+    private final HikVideoPlayerCallback mCallback;
+    private final Context mContext;
+    @Nullable
+    private final ConnectivityManager mConnectivityManager;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private String mCurrentUrl;
+    /**
+     * 已提交但还没有结果的切换目标，切换成功后才更新 mCurrentUrl
+     */
+    @Nullable
+    private String mPendingUrl;
+    private boolean mPlaying = false;
+    private boolean mNetworkReceiverRegistered = false;
+    private int mViewWidth = 0;
+    private int mViewHeight = 0;
+    private int mStallCount = 0;
+    private long mLastStallTime = 0;
+
+    /**
+     * 卡顿统计窗口结束后重新评估，没有新的卡顿时升级为主码流
+     */
+    private final Runnable mRecheckTask = new Runnable() {
+        @Override
+        public void run() {
+            evaluate();
+        }
+    };
+
+    /**
+     * 网络类型变化，例如从 WIFI 切换到移动网络
+     */
+    private final BroadcastReceiver mNetworkReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            evaluate();
+        }
+    };
+
+    public AdaptiveStreamController(@NonNull Context context, @NonNull HikVideoPlayer player, String mainUrl,
+                                    @Nullable String subUrl, @NonNull HikVideoPlayerCallback callback) {
+        mPlayer = player;
+        mMainUrl = mainUrl;
+        mSubUrl = subUrl;
+        mCallback = callback;
+        mContext = context.getApplicationContext();
+        mConnectivityManager = (ConnectivityManager) mContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        mCurrentUrl = mainUrl;
+    }
+
+    public boolean isAdaptive() {
+        return !TextUtils.isEmpty(mSubUrl);
+    }
+
+    /**
+     * 开始播放前选择码流地址
+     */
+    @UiThread
+    public String selectUrl() {
+        mPendingUrl = null;
+        mCurrentUrl = isAdaptive() && shouldUseSubStream() ? mSubUrl : mMainUrl;
+        return mCurrentUrl;
+    }
+
+    public String getCurrentUrl() {
+        return mCurrentUrl;
+    }
+
+    /**
+     * 播放状态变化，只有在播放中才会切换码流和监听网络变化
+     */
+    @UiThread
+    public void setPlaying(boolean playing) {
+        mPlaying = playing;
+        if (playing) {
+            registerNetworkReceiver();
+            evaluate();
+        } else {
+            //停止后未执行的切换不会再有结果
+            mPendingUrl = null;
+            unregisterNetworkReceiver();
+            mHandler.removeCallbacks(mRecheckTask);
+        }
+    }
+
+    /**
+     * 窗口关闭时调用
+     */
+    @UiThread
+    public void release() {
+        setPlaying(false);
+    }
+
+    /**
+     * 渲染区域大小变化，横竖屏切换或布局变化时调用
+     */
+    @UiThread
+    public void onViewSizeChanged(int width, int height) {
+        mViewWidth = width;
+        mViewHeight = height;
+        evaluate();
+    }
+
+    /**
+     * 播放出现卡顿
+     */
+    @UiThread
+    public void onStall() {
+        long now = SystemClock.elapsedRealtime();
+        if (now - mLastStallTime > STALL_WINDOW_MS) {
+            mStallCount = 0;
+        }
+        mStallCount++;
+        mLastStallTime = now;
+        evaluate();
+        if (mPlaying) {
+            mHandler.removeCallbacks(mRecheckTask);
+            mHandler.postDelayed(mRecheckTask, STALL_WINDOW_MS + 1);
+        }
+    }
+
+    private boolean shouldUseSubStream() {
+        if (mViewWidth > 0 && mViewHeight > 0 && (long) mViewWidth * mViewHeight < SUB_STREAM_MAX_AREA) {
+            return true;
+        }
+        if (isMobileNetwork()) {
+            return true;
+        }
+        return mStallCount >= STALL_DOWNGRADE_COUNT && SystemClock.elapsedRealtime() - mLastStallTime <= STALL_WINDOW_MS;
+    }
+
+    private boolean isMobileNetwork() {
+        if (mConnectivityManager == null) {
+            return false;
+        }
+        NetworkInfo networkInfo = mConnectivityManager.getActiveNetworkInfo();
+        return networkInfo != null && networkInfo.getType() == ConnectivityManager.TYPE_MOBILE;
+    }
+
+    private void registerNetworkReceiver() {
+        if (!isAdaptive() || mNetworkReceiverRegistered) {
+            return;
+        }
+        mContext.registerReceiver(mNetworkReceiver, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+        mNetworkReceiverRegistered = true;
+    }
+
+    private void unregisterNetworkReceiver() {
+        if (mNetworkReceiverRegistered) {
+            mContext.unregisterReceiver(mNetworkReceiver);
+            mNetworkReceiverRegistered = false;
+        }
+    }
+
+    private void evaluate() {
+        if (!isAdaptive() || !mPlaying) {
+            return;
+        }
+        final String target = shouldUseSubStream() ? mSubUrl : mMainUrl;
+        if (target.equals(mPendingUrl != null ? mPendingUrl : mCurrentUrl)) {
+            return;
+        }
+        Log.i(TAG, "evaluate: change stream to " + (target.equals(mSubUrl) ? "sub" : "main"));
+        mPendingUrl = target;
+        //changeStream() 会阻塞当前线程，在播放器的串行队列中执行，停止或重新开流后的切换结果不再回调
+        PlayerTaskExecutor.getInstance().changeStream(mPlayer, new PlayerTaskExecutor.StartTask() {
+            @Override
+            public boolean start(HikVideoPlayerCallback callback) {
+                boolean success = mPlayer.changeStream(target, callback);
+                if (!success) {
+                    onChangeResult(target, false);
+                }
+                return success;
+            }
+        }, new HikVideoPlayerCallback() {
+            @Override
+            public void onPlayerStatus(@NonNull Status status, int errorCode) {
+                onChangeResult(target, status == Status.SUCCESS);
+                mCallback.onPlayerStatus(status, errorCode);
+            }
+        });
+    }
+
+    /**
+     * 切换结果，成功时更新当前码流，失败时保留切换前的码流，下次评估时重试
+     */
+    @WorkerThread
+    private void onChangeResult(final String target, final boolean success) {
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!target.equals(mPendingUrl)) {
+                    //已经停止、重新开流或提交了新的切换
+                    return;
+                }
+                mPendingUrl = null;
+                if (success) {
+                    mCurrentUrl = target;
+                } else {
+                    Log.w(TAG, "onChangeResult: change stream failed, keep " + mCurrentUrl);
+                }
+            }
+        });
+    }
+}
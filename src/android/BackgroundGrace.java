@@ -0,0 +1,112 @@
+package cn.cordova.hikvision.sdk;
+
+import android.graphics.SurfaceTexture;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.UiThread;
+import android.util.Log;
+
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+
+/**
+ * 进入后台后的取流宽限期
+ * <p>
+ * 页面进入后台或 surface 销毁时不立即 stopPlay，而是通过 setVideoWindow(null) 解绑画面，取流保持连接；
+ * 超过宽限时间后再停止取流。宽限期内回到页面只需要重新绑定画面，不需要重新建立 RTSP 会话。
+ */
+public class BackgroundGrace {
+    private static final String TAG = "BackgroundGrace";
+
+    private static final long DEFAULT_GRACE_MS = 5000;
+
+    private static volatile long sGraceMs = DEFAULT_GRACE_MS;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mTeardownTask;
+    private boolean mDetached = false;
+
+    /**
+     * @param teardownTask 超过宽限时间后停止取流的任务，在主线程中执行
+     */
+    public BackgroundGrace(@NonNull Runnable teardownTask) {
+        mTeardownTask = teardownTask;
+    }
+
+    /**
+     * 设置宽限时间，单位毫秒，0 代表进入后台时立即停止取流
+     */
+    public static void setGracePeriod(long graceMs) {
+        sGraceMs = graceMs >= 0 ? graceMs : DEFAULT_GRACE_MS;
+    }
+
+    /**
+     * 解绑画面并开始计时
+     *
+     * @return false-没有宽限期，需要立即停止取流
+     */
+    @UiThread
+    public boolean detach(@NonNull final HikVideoPlayer player) {
+        if (mDetached) {
+            return true;
+        }
+        long graceMs = sGraceMs;
+        if (graceMs <= 0) {
+            return false;
+        }
+        mDetached = true;
+        PlayerTaskExecutor.getInstance().execute(player, new Runnable() {
+            @Override
+            public void run() {
+                player.setVideoWindow(null);
+            }
+        });
+        mHandler.postDelayed(mExpireTask, graceMs);
+        Log.d(TAG, "detach: keep session for " + graceMs + "ms");
+        return true;
+    }
+
+    /**
+     * 宽限期内回到页面，重新绑定画面
+     *
+     * @return false-不在宽限期内，需要重新开流
+     */
+    @UiThread
+    public boolean attach(@NonNull final HikVideoPlayer player, @NonNull final SurfaceTexture surface) {
+        if (!mDetached) {
+            return false;
+        }
+        mHandler.removeCallbacks(mExpireTask);
+        mDetached = false;
+        PlayerTaskExecutor.getInstance().execute(player, new Runnable() {
+            @Override
+            public void run() {
+                player.setVideoWindow(surface);
+            }
+        });
+        Log.d(TAG, "attach: resume without reconnecting");
+        return true;
+    }
+
+    public boolean isDetached() {
+        return mDetached;
+    }
+
+    /**
+     * 取消计时，停止播放或离开页面时调用
+     */
+    @UiThread
+    public void cancel() {
+        mHandler.removeCallbacks(mExpireTask);
+        mDetached = false;
+    }
+
+    private final Runnable mExpireTask = new Runnable() {
+        @Override
+        public void run() {
+            mDetached = false;
+            Log.d(TAG, "expire: stop session");
+            mTeardownTask.run();
+        }
+    };
+}
@@ -0,0 +1,69 @@
+package cn.cordova.hikvision.sdk;
+
+import android.util.Log;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaWebView;
+import org.apache.cordova.PluginResult;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 批量命令中单个命令的回调，不直接发送给 JS，而是记录第一个结果，由 batch 命令汇总后一次返回
+ */
+class BatchCallbackContext extends CallbackContext {
+    private static final String TAG = "BatchCallbackContext";
+
+    interface OnResultListener {
+        /**
+         * 命令第一次返回结果，在返回结果的线程中回调
+         */
+        void onResult(BatchCallbackContext item);
+    }
+
+    private final String mAction;
+    private final OnResultListener mListener;
+    private final AtomicReference<PluginResult> mResult = new AtomicReference<>();
+
+    BatchCallbackContext(String callbackId, CordovaWebView webView, String action, OnResultListener listener) {
+        super(callbackId, webView);
+        mAction = action;
+        mListener = listener;
+    }
+
+    @Override
+    public void sendPluginResult(PluginResult pluginResult) {
+        //订阅类命令会先返回 NO_RESULT 保持回调，不作为结果
+        if (pluginResult.getStatus() == PluginResult.Status.NO_RESULT.ordinal()
+                || !mResult.compareAndSet(null, pluginResult)) {
+            return;
+        }
+        mListener.onResult(this);
+    }
+
+    /**
+     * 命令结果，格式：{ 'action': string, 'status': 'ok' | 'error' | 'pending', 'result': any }
+     */
+    JSONObject toJson() {
+        JSONObject item = new JSONObject();
+        try {
+            item.put("action", mAction);
+            PluginResult result = mResult.get();
+            if (result == null) {
+                item.put("status", "pending");
+                return item;
+            }
+            item.put("status", result.getStatus() == PluginResult.Status.OK.ordinal() ? "ok" : "error");
+            String message = result.getMessage();
+            if (message != null) {
+                item.put("result", new JSONTokener(message).nextValue());
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "toJson: " + e.toString());
+        }
+        return item;
+    }
+}
@@ -0,0 +1,99 @@
+package cn.cordova.hikvision.sdk;
+
+import android.support.annotation.NonNull;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaWebView;
+import org.json.JSONArray;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一次批量命令的结果汇总
+ * <p>
+ * 不占用线程等待：每个命令第一次返回结果时计数减一，最后一个返回的命令发送汇总结果；
+ * 超时任务先到时发送当前结果，还没有结果的命令状态为 pending。汇总结果只发送一次。
+ */
+class BatchRequest implements BatchCallbackContext.OnResultListener {
+    /**
+     * 批量命令的超时计时，所有批量命令共用
+     */
+    private static final ScheduledExecutorService sTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "hik-batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final CallbackContext mCallbackContext;
+    private final BatchCallbackContext[] mItems;
+    private final AtomicInteger mRemaining;
+    private final AtomicBoolean mSent = new AtomicBoolean(false);
+    private volatile ScheduledFuture<?> mTimeout;
+
+    BatchRequest(@NonNull CallbackContext callbackContext, @NonNull CordovaWebView webView, @NonNull String[] actions) {
+        mCallbackContext = callbackContext;
+        mItems = new BatchCallbackContext[actions.length];
+        mRemaining = new AtomicInteger(actions.length);
+        for (int i = 0; i < actions.length; i++) {
+            mItems[i] = new BatchCallbackContext(callbackContext.getCallbackId() + "-" + i, webView, actions[i], this);
+        }
+    }
+
+    /**
+     * 第 index 个命令的回调
+     */
+    BatchCallbackContext get(int index) {
+        return mItems[index];
+    }
+
+    /**
+     * 开始计时，timeout 毫秒后还有命令没有结果时直接发送；没有命令时立即发送
+     */
+    void start(long timeoutMs) {
+        if (mItems.length == 0) {
+            send();
+            return;
+        }
+        mTimeout = sTimer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                send();
+            }
+        }, Math.max(0, timeoutMs), TimeUnit.MILLISECONDS);
+        //计时开始前所有命令可能都已经返回
+        if (mSent.get()) {
+            mTimeout.cancel(false);
+        }
+    }
+
+    @Override
+    public void onResult(BatchCallbackContext item) {
+        if (mRemaining.decrementAndGet() == 0) {
+            send();
+        }
+    }
+
+    private void send() {
+        if (!mSent.compareAndSet(false, true)) {
+            return;
+        }
+        ScheduledFuture<?> timeout = mTimeout;
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        JSONArray result = new JSONArray();
+        for (BatchCallbackContext item : mItems) {
+            result.put(item.toJson());
+        }
+        mCallbackContext.success(result);
+    }
+}
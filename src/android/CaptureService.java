@@ -0,0 +1,234 @@
+package cn.cordova.hikvision.sdk;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步抓图
+ * <p>
+ * capturePicture 会在调用线程中编码 JPEG 并写文件，不能放在主线程。连拍的间隔由单独的抓图线程池计时，
+ * 每张抓图放到播放器的串行队列中执行，不会与停止、重新开流或归还同时调用播放器。抓图前按播放器的会话编号检查
+ * 播放器是否已经停止、重新开流或归还，这些情况下该张抓图计为失败。支持多路同时抓图和连拍（按间隔抓取多张），全部完成后一次返回文件路径。
+ */
+public class CaptureService {
+    private static final String TAG = "CaptureService";
+
+    private static final int MAX_BURST_COUNT = 30;
+    private static final long MIN_INTERVAL_MS = 100;
+    /**
+     * 连拍计时的线程数
+     */
+    private static final int CAPTURE_THREADS = 2;
+
+    private static final CaptureService sInstance = new CaptureService();
+
+    /**
+     * 按间隔执行抓图
+     */
+    private final ScheduledExecutorService mExecutor;
+
+    public interface OnCaptureListener {
+        /**
+         * 抓图完成，在子线程中回调
+         *
+         * @param results 格式：[{ 'url': string, 'paths': [string], 'failed': number, 'error': string }]，
+         *                顺序与传入的监控点一致，error 只有监控点没有在播放时才有值
+         */
+        @WorkerThread
+        void onCaptureComplete(JSONArray results);
+    }
+
+    private CaptureService() {
+        mExecutor = Executors.newScheduledThreadPool(CAPTURE_THREADS, new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "hik-capture-" + mCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public static CaptureService getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * 对正在播放的监控点抓图
+     *
+     * @param urls       监控点地址，没有在播放的监控点会返回 error
+     * @param count      每路抓图张数，大于 1 时为连拍
+     * @param intervalMs 连拍间隔，单位毫秒
+     */
+    public void capture(@NonNull Context context, @NonNull List<String> urls, int count, long intervalMs,
+                        @NonNull OnCaptureListener listener) {
+        Context appContext = context.getApplicationContext();
+        int shots = Math.max(1, Math.min(count, MAX_BURST_COUNT));
+        long interval = Math.max(MIN_INTERVAL_MS, intervalMs);
+        Request request = new Request(urls.size(), listener);
+        if (urls.isEmpty()) {
+            request.finish();
+            return;
+        }
+        for (int i = 0; i < urls.size(); i++) {
+            String url = urls.get(i);
+            HikVideoPlayer player = PlayerRegistry.get(url);
+            if (player == null) {
+                new Burst(appContext, request, i, url, null, 0, shots).finish("not playing");
+                continue;
+            }
+            int generation = PlayerTaskExecutor.getInstance().getGeneration(player);
+            Burst burst = new Burst(appContext, request, i, url, player, generation, shots);
+            for (int shot = 0; shot < shots; shot++) {
+                burst.schedule(shot, shot * interval);
+            }
+        }
+    }
+
+    /**
+     * 一次抓图请求，所有监控点完成后回调
+     */
+    private static final class Request {
+        private final JSONObject[] mResults;
+        private final AtomicInteger mRemaining;
+        private final OnCaptureListener mListener;
+
+        Request(int size, OnCaptureListener listener) {
+            mResults = new JSONObject[size];
+            mRemaining = new AtomicInteger(size);
+            mListener = listener;
+        }
+
+        void onBurstComplete(int index, JSONObject result) {
+            mResults[index] = result;
+            if (mRemaining.decrementAndGet() == 0) {
+                finish();
+            }
+        }
+
+        void finish() {
+            JSONArray results = new JSONArray();
+            for (JSONObject result : mResults) {
+                results.put(result);
+            }
+            mListener.onCaptureComplete(results);
+        }
+    }
+
+    /**
+     * 单个监控点的连拍
+     */
+    private final class Burst {
+        private final Context mContext;
+        private final Request mRequest;
+        private final int mIndex;
+        private final String mUrl;
+        private final HikVideoPlayer mPlayer;
+        /**
+         * 发起抓图时播放器的会话编号
+         */
+        private final int mGeneration;
+        private final AtomicInteger mRemaining;
+        private final JSONArray mPaths = new JSONArray();
+        private int mFailed = 0;
+
+        Burst(Context context, Request request, int index, String url, HikVideoPlayer player, int generation, int shots) {
+            mContext = context;
+            mRequest = request;
+            mIndex = index;
+            mUrl = url;
+            mPlayer = player;
+            mGeneration = generation;
+            mRemaining = new AtomicInteger(shots);
+        }
+
+        void schedule(final int shot, long delayMs) {
+            mExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    captureOne(shot);
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * 在抓图线程中按间隔触发，抓图本身放到播放器的串行队列中执行，与停止、重新开流和归还互斥
+         */
+        private void captureOne(final int shot) {
+            if (!isCurrent()) {
+                //已经停止或重新开流，不再排队
+                onShotComplete(false, null);
+                return;
+            }
+            PlayerTaskExecutor.getInstance().execute(mPlayer, new Runnable() {
+                @Override
+                public void run() {
+                    //排队期间可能已经停止或重新开流，播放器可能已经归还或用于其他监控点
+                    if (!isCurrent()) {
+                        onShotComplete(false, null);
+                        return;
+                    }
+                    String path = MyUtils.getCaptureImagePath(mContext, "capture" + mIndex + "-" + shot);
+                    if (mPlayer.capturePicture(path)) {
+                        long now = System.currentTimeMillis();
+                        MediaIndex.getInstance(mContext).add(mUrl, MediaIndex.TYPE_CAPTURE, path, now, now, path);
+                        onShotComplete(true, path);
+                    } else {
+                        Log.e(TAG, "capture failed: " + Integer.toHexString(mPlayer.getLastError()));
+                        onShotComplete(false, null);
+                    }
+                }
+            });
+        }
+
+        private boolean isCurrent() {
+            return PlayerTaskExecutor.getInstance().isCurrent(mPlayer, mGeneration)
+                    && PlayerRegistry.isRegistered(mPlayer, mUrl);
+        }
+
+        private void onShotComplete(boolean success, String path) {
+            synchronized (this) {
+                if (success) {
+                    mPaths.put(path);
+                } else {
+                    mFailed++;
+                }
+            }
+            if (mRemaining.decrementAndGet() == 0) {
+                finish(null);
+            }
+        }
+
+        synchronized void finish(String error) {
+            JSONObject result = new JSONObject();
+            try {
+                result.put("url", mUrl);
+                result.put("paths", mPaths);
+                result.put("failed", mFailed);
+                if (error != null) {
+                    result.put("error", error);
+                }
+            } catch (JSONException e) {
+                Log.e(TAG, "finish: " + e.toString());
+            }
+            mRequest.onBurstComplete(mIndex, result);
+        }
+    }
+}
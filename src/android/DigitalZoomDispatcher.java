@@ -0,0 +1,79 @@
+package cn.cordova.hikvision.sdk;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+
+import com.hikvision.open.hikvideoplayer.CustomRect;
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 在播放器的串行队列中执行电子放大
+ * <p>
+ * openDigitalZoom 是同步的 native 调用，不在主线程中执行。队列中最多只有一个待执行的放大任务，
+ * 还没执行时新的区域直接覆盖旧的区域；区域对象和任务都是复用的，手势过程中不创建新对象。
+ */
+public class DigitalZoomDispatcher {
+    private final HikVideoPlayer mPlayer;
+    /**
+     * 主线程写入、队列线程读取，通过 this 加锁
+     */
+    private final CustomRect mPendingOriginal = new CustomRect();
+    private final CustomRect mPendingVirtual = new CustomRect();
+    /**
+     * 只在队列线程中使用
+     */
+    private final CustomRect mOriginal = new CustomRect();
+    private final CustomRect mVirtual = new CustomRect();
+    private final AtomicBoolean mQueued = new AtomicBoolean(false);
+
+    private final Runnable mApplyTask = new Runnable() {
+        @Override
+        public void run() {
+            mQueued.set(false);
+            synchronized (DigitalZoomDispatcher.this) {
+                copy(mPendingOriginal, mOriginal);
+                copy(mPendingVirtual, mVirtual);
+            }
+            mPlayer.openDigitalZoom(mOriginal, mVirtual);
+        }
+    };
+
+    private final Runnable mCloseTask = new Runnable() {
+        @Override
+        public void run() {
+            mPlayer.closeDigitalZoom();
+        }
+    };
+
+    public DigitalZoomDispatcher(@NonNull HikVideoPlayer player) {
+        mPlayer = player;
+    }
+
+    /**
+     * 提交新的放大区域
+     */
+    @MainThread
+    public void open(@NonNull CustomRect original, @NonNull CustomRect virtual) {
+        synchronized (this) {
+            copy(original, mPendingOriginal);
+            copy(virtual, mPendingVirtual);
+        }
+        if (mQueued.compareAndSet(false, true)) {
+            PlayerTaskExecutor.getInstance().execute(mPlayer, mApplyTask);
+        }
+    }
+
+    /**
+     * 关闭电子放大，排在已提交的放大任务之后执行
+     */
+    @MainThread
+    public void close() {
+        PlayerTaskExecutor.getInstance().execute(mPlayer, mCloseTask);
+    }
+
+    private static void copy(CustomRect from, CustomRect to) {
+        to.setValue(from.getLeft(), from.getTop(), from.getRight(), from.getBottom());
+    }
+}
@@ -0,0 +1,225 @@
+package cn.cordova.hikvision.sdk;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.hikvision.open.hikvideoplayer.HikVideoPlayerCallback;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 原生播放器到 JS 的事件通道
+ * <p>
+ * JS 订阅后保留同一个 CallbackContext（keepCallback），播放状态、错误、重连、帧率、录像等事件
+ * 先放入队列，按固定间隔合并成一个数组发送，避免多画面时频繁调用 WebView 桥。
+ * 帧率这类高频事件按类型和监控点合并，每个间隔只发送最新的一条。
+ * 每个事件的格式：{ 'type': string, 'url': string, 'time': number, ...事件数据 }
+ */
+public class EventChannel {
+    private static final String TAG = "EventChannel";
+
+    public static final String EVENT_STATUS = "status";
+    public static final String EVENT_STATE = "state";
+    public static final String EVENT_RECONNECT = "reconnect";
+    public static final String EVENT_RECONNECT_FAILED = "reconnectFailed";
+    public static final String EVENT_STALL = "stall";
+    public static final String EVENT_RECOVER = "recover";
+    public static final String EVENT_FPS = "fps";
+    public static final String EVENT_RECORDING = "recording";
+    public static final String EVENT_SEEK = "seek";
+
+    /**
+     * 合并发送的间隔
+     */
+    private static final long FLUSH_INTERVAL_MS = 250;
+    /**
+     * 两次发送之间最多保留的普通事件数，超过后丢弃最早的事件
+     */
+    private static final int MAX_PENDING_EVENTS = 256;
+
+    private static final EventChannel sInstance = new EventChannel();
+
+    private final Handler mHandler;
+    private final Object mLock = new Object();
+    private volatile CallbackContext mSubscriber;
+    private List<JSONObject> mPendingEvents = new ArrayList<>();
+    /**
+     * 需要合并的高频事件，key 为 type + url
+     */
+    private final Map<String, JSONObject> mCoalescedEvents = new LinkedHashMap<>();
+    private boolean mFlushScheduled = false;
+    private int mDroppedCount = 0;
+
+    private EventChannel() {
+        HandlerThread thread = new HandlerThread("hik-event-channel");
+        thread.start();
+        mHandler = new Handler(thread.getLooper());
+    }
+
+    public static EventChannel getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * 订阅事件，新的订阅会替换之前的订阅
+     */
+    public void subscribe(@NonNull CallbackContext callbackContext) {
+        CallbackContext previous;
+        synchronized (mLock) {
+            previous = mSubscriber;
+            mSubscriber = callbackContext;
+            mPendingEvents.clear();
+            mCoalescedEvents.clear();
+            mDroppedCount = 0;
+        }
+        if (previous != null && previous != callbackContext) {
+            close(previous);
+        }
+        PluginResult result = new PluginResult(PluginResult.Status.NO_RESULT);
+        result.setKeepCallback(true);
+        callbackContext.sendPluginResult(result);
+    }
+
+    /**
+     * 取消订阅，页面刷新或 JS 主动取消时调用
+     */
+    public void unsubscribe() {
+        CallbackContext previous;
+        synchronized (mLock) {
+            previous = mSubscriber;
+            mSubscriber = null;
+            mPendingEvents.clear();
+            mCoalescedEvents.clear();
+        }
+        if (previous != null) {
+            close(previous);
+        }
+    }
+
+    /**
+     * 结束订阅的回调，JS 端会释放对应的 callback
+     */
+    private static void close(CallbackContext callbackContext) {
+        PluginResult result = new PluginResult(PluginResult.Status.NO_RESULT);
+        result.setKeepCallback(false);
+        callbackContext.sendPluginResult(result);
+    }
+
+    public boolean hasSubscriber() {
+        return mSubscriber != null;
+    }
+
+    /**
+     * 发送事件，按发生顺序全部送达
+     *
+     * @param extras 事件数据，依次为 key, value
+     */
+    public void post(@NonNull String type, @Nullable String url, Object... extras) {
+        if (mSubscriber == null) {
+            return;
+        }
+        JSONObject event = createEvent(type, url, extras);
+        if (event == null) {
+            return;
+        }
+        synchronized (mLock) {
+            if (mPendingEvents.size() >= MAX_PENDING_EVENTS) {
+                mPendingEvents.remove(0);
+                mDroppedCount++;
+            }
+            mPendingEvents.add(event);
+            scheduleFlushLocked();
+        }
+    }
+
+    /**
+     * 发送高频事件，同一间隔内相同类型和监控点的事件只保留最新的一条
+     *
+     * @param extras 事件数据，依次为 key, value
+     */
+    public void postCoalesced(@NonNull String type, @Nullable String url, Object... extras) {
+        if (mSubscriber == null) {
+            return;
+        }
+        JSONObject event = createEvent(type, url, extras);
+        if (event == null) {
+            return;
+        }
+        synchronized (mLock) {
+            mCoalescedEvents.put(type + '|' + url, event);
+            scheduleFlushLocked();
+        }
+    }
+
+    /**
+     * 发送播放状态事件，错误码只有 FAILED 和 EXCEPTION 才有值
+     */
+    public void postStatus(@Nullable String url, @NonNull HikVideoPlayerCallback.Status status, int errorCode) {
+        post(EVENT_STATUS, url, "status", status.name(), "errorCode", Integer.toHexString(errorCode));
+    }
+
+    @Nullable
+    private static JSONObject createEvent(String type, String url, Object[] extras) {
+        JSONObject event = new JSONObject();
+        try {
+            event.put("type", type);
+            event.put("url", url);
+            event.put("time", System.currentTimeMillis());
+            for (int i = 0; i + 1 < extras.length; i += 2) {
+                event.put(String.valueOf(extras[i]), extras[i + 1]);
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "createEvent: " + e.toString());
+            return null;
+        }
+        return event;
+    }
+
+    private void scheduleFlushLocked() {
+        if (!mFlushScheduled) {
+            mFlushScheduled = true;
+            mHandler.postAtTime(mFlushTask, SystemClock.uptimeMillis() + FLUSH_INTERVAL_MS);
+        }
+    }
+
+    private final Runnable mFlushTask = new Runnable() {
+        @Override
+        public void run() {
+            CallbackContext subscriber;
+            List<JSONObject> events;
+            int dropped;
+            synchronized (mLock) {
+                mFlushScheduled = false;
+                subscriber = mSubscriber;
+                if (subscriber == null || (mPendingEvents.isEmpty() && mCoalescedEvents.isEmpty())) {
+                    return;
+                }
+                events = mPendingEvents;
+                events.addAll(mCoalescedEvents.values());
+                mPendingEvents = new ArrayList<>();
+                mCoalescedEvents.clear();
+                dropped = mDroppedCount;
+                mDroppedCount = 0;
+            }
+            if (dropped > 0) {
+                Log.w(TAG, "flush: dropped " + dropped + " events");
+            }
+            PluginResult result = new PluginResult(PluginResult.Status.OK, new JSONArray(events));
+            result.setKeepCallback(true);
+            subscriber.sendPluginResult(result);
+        }
+    };
+}
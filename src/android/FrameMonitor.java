@@ -0,0 +1,233 @@
+package cn.cordova.hikvision.sdk;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.UiThread;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * 画面帧率和卡顿检测
+ * <p>
+ * SDK 没有逐帧回调，onSurfaceTextureUpdated 是唯一的逐帧信号。这里统计实际上屏的帧率和帧间隔抖动，
+ * 播放成功但画面超过阈值没有更新时判定为卡顿，超过更长的阈值判定为画面冻结，交给重连处理。
+ * 每帧的统计不分配对象。
+ */
+public class FrameMonitor {
+    /**
+     * 画面冻结的错误码，按可重连的错误处理
+     */
+    public static final int ERROR_STREAM_FROZEN = 0x10000002;
+
+    private static final long DEFAULT_STALL_THRESHOLD_MS = 3000;
+    /**
+     * 卡顿持续该倍数的阈值后判定为画面冻结
+     */
+    private static final int FROZEN_THRESHOLD_RATIO = 3;
+    /**
+     * 帧率统计窗口
+     */
+    private static final long FPS_WINDOW_MS = 1000;
+    /**
+     * 抖动的平滑系数，参考 RFC 3550 取 1/16
+     */
+    private static final float JITTER_GAIN = 1f / 16;
+
+    private static volatile long sStallThresholdMs = DEFAULT_STALL_THRESHOLD_MS;
+    /**
+     * 正在检测的画面，供 JS 查询
+     */
+    private static final Set<FrameMonitor> sActiveMonitors = new CopyOnWriteArraySet<>();
+
+    private final String mUrl;
+    private final OnStallListener mListener;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private long mStallThresholdMs;
+    private boolean mRunning = false;
+
+    private long mLastFrameTime = 0;
+    private long mWindowStartTime = 0;
+    private int mWindowFrames = 0;
+    private float mMeanIntervalMs = 0;
+    private volatile float mFps = 0;
+    private volatile float mJitterMs = 0;
+    private volatile boolean mStalled = false;
+    private boolean mFrozen = false;
+    private volatile int mStallCount = 0;
+
+    public interface OnStallListener {
+        /**
+         * 画面超过阈值没有更新
+         */
+        void onStall(long frozenMs);
+
+        /**
+         * 卡顿后画面恢复更新
+         */
+        void onRecover(long frozenMs);
+
+        /**
+         * 卡顿时间过长，画面冻结，需要重新取流
+         */
+        void onFrozen(long frozenMs);
+    }
+
+    public FrameMonitor(@NonNull String url, @NonNull OnStallListener listener) {
+        mUrl = url;
+        mListener = listener;
+    }
+
+    /**
+     * 设置卡顿阈值，单位毫秒
+     */
+    public static void setStallThreshold(long thresholdMs) {
+        sStallThresholdMs = thresholdMs > 0 ? thresholdMs : DEFAULT_STALL_THRESHOLD_MS;
+    }
+
+    /**
+     * 播放成功后开始检测
+     */
+    @UiThread
+    public void start() {
+        if (mRunning) {
+            return;
+        }
+        mRunning = true;
+        mStallThresholdMs = sStallThresholdMs;
+        long now = SystemClock.uptimeMillis();
+        mLastFrameTime = now;
+        mWindowStartTime = now;
+        mWindowFrames = 0;
+        mMeanIntervalMs = 0;
+        mJitterMs = 0;
+        mStalled = false;
+        mFrozen = false;
+        sActiveMonitors.add(this);
+        mHandler.postDelayed(mWatchdog, mStallThresholdMs / 2);
+    }
+
+    /**
+     * 停止播放时停止检测
+     */
+    @UiThread
+    public void stop() {
+        mRunning = false;
+        mFps = 0;
+        mStalled = false;
+        sActiveMonitors.remove(this);
+        mHandler.removeCallbacks(mWatchdog);
+    }
+
+    /**
+     * 画面更新，在 onSurfaceTextureUpdated 中调用
+     */
+    @UiThread
+    public void onFrame() {
+        if (!mRunning) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        long interval = now - mLastFrameTime;
+        mLastFrameTime = now;
+        if (mStalled) {
+            mStalled = false;
+            mFrozen = false;
+            EventChannel.getInstance().post(EventChannel.EVENT_RECOVER, mUrl, "frozen", interval);
+            mListener.onRecover(interval);
+        }
+        //帧间隔抖动：帧间隔与平均帧间隔之差的平滑值
+        if (mMeanIntervalMs == 0) {
+            mMeanIntervalMs = interval;
+        } else {
+            mJitterMs += (Math.abs(interval - mMeanIntervalMs) - mJitterMs) * JITTER_GAIN;
+            mMeanIntervalMs += (interval - mMeanIntervalMs) * JITTER_GAIN;
+        }
+        mWindowFrames++;
+        long windowMs = now - mWindowStartTime;
+        if (windowMs >= FPS_WINDOW_MS) {
+            mFps = mWindowFrames * 1000f / windowMs;
+            mWindowFrames = 0;
+            mWindowStartTime = now;
+            //每秒最多一次，事件通道按监控点合并
+            EventChannel channel = EventChannel.getInstance();
+            if (channel.hasSubscriber()) {
+                channel.postCoalesced(EventChannel.EVENT_FPS, mUrl, "fps", Math.round(mFps * 10) / 10.0,
+                        "jitter", Math.round(mJitterMs * 10) / 10.0);
+            }
+        }
+    }
+
+    public float getFps() {
+        return mFps;
+    }
+
+    public float getJitterMs() {
+        return mJitterMs;
+    }
+
+    public boolean isStalled() {
+        return mStalled;
+    }
+
+    public int getStallCount() {
+        return mStallCount;
+    }
+
+    public String getUrl() {
+        return mUrl;
+    }
+
+    /**
+     * 定时检查画面是否超过阈值没有更新
+     */
+    private final Runnable mWatchdog = new Runnable() {
+        @Override
+        public void run() {
+            if (!mRunning) {
+                return;
+            }
+            long frozenMs = SystemClock.uptimeMillis() - mLastFrameTime;
+            if (!mStalled && frozenMs >= mStallThresholdMs) {
+                mStalled = true;
+                mStallCount++;
+                mFps = 0;
+                EventChannel.getInstance().post(EventChannel.EVENT_STALL, mUrl, "frozen", frozenMs);
+                mListener.onStall(frozenMs);
+            } else if (mStalled && !mFrozen && frozenMs >= mStallThresholdMs * FROZEN_THRESHOLD_RATIO) {
+                mFrozen = true;
+                mListener.onFrozen(frozenMs);
+            }
+            if (mRunning) {
+                mHandler.postDelayed(this, mStallThresholdMs / 2);
+            }
+        }
+    };
+
+    /**
+     * 正在播放的画面统计，格式：[{ 'url': string, 'fps': number, 'jitter': number, 'stalled': boolean, 'stalls': number }]
+     */
+    public static JSONArray getStats() throws JSONException {
+        JSONArray result = new JSONArray();
+        for (FrameMonitor monitor : sActiveMonitors) {
+            result.put(monitor.toJson());
+        }
+        return result;
+    }
+
+    public JSONObject toJson() throws JSONException {
+        JSONObject item = new JSONObject();
+        item.put("url", mUrl);
+        item.put("fps", Math.round(mFps * 10) / 10.0);
+        item.put("jitter", Math.round(mJitterMs * 10) / 10.0);
+        item.put("stalled", mStalled);
+        item.put("stalls", mStallCount);
+        return item;
+    }
+}
@@ -0,0 +1,170 @@
+package cn.cordova.hikvision.sdk;
+
+import android.content.Intent;
+import android.graphics.Color;
+import android.os.Bundle;
+import android.support.v7.app.AppCompatActivity;
+import android.util.Log;
+import android.view.View;
+import android.view.WindowManager;
+import android.widget.LinearLayout;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多画面预览页面，支持 1/4/9/16 分屏，每个窗口使用独立的 HikVideoPlayer
+ */
+public class GridPreviewActivity extends AppCompatActivity {
+    private static final String TAG = "GridPreviewActivity";
+
+    /**
+     * 支持的分屏数
+     */
+    private static final int[] LAYOUTS = {1, 4, 9, 16};
+    /**
+     * 窗口之间的间隔
+     */
+    private static final int TILE_SPACING = 2;
+
+    /**
+     * 各窗口的播放器在 PlayerTaskExecutor 中并行开流，总耗时取决于最慢的一路
+     */
+    private final List<PreviewTile> mTiles = new ArrayList<>();
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        getWindow().addFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
+        showCameras(getIntent());
+    }
+
+    /**
+     * 页面是 singleInstance，再次打开多画面预览时不会重新创建，释放当前的窗口后按新的监控点重新布局
+     */
+    @Override
+    protected void onNewIntent(Intent intent) {
+        super.onNewIntent(intent);
+        setIntent(intent);
+        releaseTiles();
+        showCameras(intent);
+    }
+
+    /**
+     * 按监控点列表和分屏数创建窗口，新窗口在 surface 准备好后自动开始播放
+     */
+    private void showCameras(Intent intent) {
+        JSONArray cameras = parseCameras(intent.getStringExtra("hikCameras"));
+        String[] traceIds = intent.getStringArrayExtra("hikTraceIds");
+        int layout = fitLayout(intent.getIntExtra("hikLayout", cameras.length()));
+        if (cameras.length() > layout) {
+            Log.w(TAG, "showCameras: only first " + layout + " cameras will be shown");
+        }
+        int columns = (int) Math.round(Math.sqrt(layout));
+
+        LinearLayout root = new LinearLayout(this);
+        root.setOrientation(LinearLayout.VERTICAL);
+        root.setBackgroundColor(Color.DKGRAY);
+        for (int row = 0; row < columns; row++) {
+            LinearLayout rowLayout = new LinearLayout(this);
+            rowLayout.setOrientation(LinearLayout.HORIZONTAL);
+            root.addView(rowLayout, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, 0, 1f));
+            for (int column = 0; column < columns; column++) {
+                int index = row * columns + column;
+                View tileView;
+                JSONObject camera = cameras.optJSONObject(index);
+                if (camera != null) {
+                    PreviewTile tile = new PreviewTile(this, camera.optString("url"), camera.optString("subUrl", null), camera.optString("title"));
+                    if (traceIds != null && index < traceIds.length) {
+                        tile.setStartupTrace(StartupTrace.get(traceIds[index]));
+                    }
+                    mTiles.add(tile);
+                    tileView = tile.getView();
+                } else {
+                    if (traceIds != null && index < traceIds.length && StartupTrace.get(traceIds[index]) != null) {
+                        StartupTrace.get(traceIds[index]).complete();
+                    }
+                    //没有监控点的窗口显示为黑色占位
+                    tileView = new View(this);
+                    tileView.setBackgroundColor(Color.BLACK);
+                }
+                LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.MATCH_PARENT, 1f);
+                params.setMargins(TILE_SPACING, TILE_SPACING, TILE_SPACING, TILE_SPACING);
+                rowLayout.addView(tileView, params);
+            }
+        }
+        setContentView(root);
+        //超出分屏数的监控点不会显示，直接结束统计
+        if (traceIds != null) {
+            for (int i = layout; i < traceIds.length; i++) {
+                StartupTrace trace = StartupTrace.get(traceIds[i]);
+                if (trace != null) {
+                    trace.complete();
+                }
+            }
+        }
+    }
+
+    /**
+     * 解析监控点列表，格式：[{ 'url': string, 'subUrl': string, 'title': string }]
+     */
+    private JSONArray parseCameras(String json) {
+        if (json == null) {
+            return new JSONArray();
+        }
+        try {
+            return new JSONArray(json);
+        } catch (JSONException e) {
+            Log.e(TAG, "parseCameras: " + e.toString());
+            return new JSONArray();
+        }
+    }
+
+    /**
+     * 取不小于请求分屏数的最小分屏，超过16按16分屏处理
+     */
+    private static int fitLayout(int requested) {
+        for (int layout : LAYOUTS) {
+            if (layout >= requested) {
+                return layout;
+            }
+        }
+        return LAYOUTS[LAYOUTS.length - 1];
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        for (PreviewTile tile : mTiles) {
+            tile.onResume();
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        for (PreviewTile tile : mTiles) {
+            tile.onPause();
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        releaseTiles();
+        super.onDestroy();
+    }
+
+    /**
+     * 停止所有窗口的播放并归还播放器，未完成的启动统计随之结束
+     */
+    private void releaseTiles() {
+        for (PreviewTile tile : mTiles) {
+            tile.release();
+        }
+        mTiles.clear();
+    }
+}
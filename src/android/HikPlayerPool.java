@@ -0,0 +1,175 @@
+package cn.cordova.hikvision.sdk;
+
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+import com.hikvision.open.hikvideoplayer.HikVideoPlayerFactory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HikVideoPlayer 实例池
+ * <p>
+ * 在 init 时于子线程中预先创建播放器，页面和分屏窗口从池中租用，停止播放后重置并归还，
+ * 同时限制同时存在的播放器数量上限。播放器通过 {@link PlayerFactory} 创建，默认使用海康 SDK，
+ * 也可以替换为模拟实现。
+ */
+public class HikPlayerPool {
+    private static final String TAG = "HikPlayerPool";
+    /**
+     * 默认播放器数量上限，与多画面预览最大分屏数一致
+     */
+    private static final int DEFAULT_MAX_PLAYERS = 16;
+
+    private static final HikPlayerPool sInstance = new HikPlayerPool();
+
+    private final Object mLock = new Object();
+    /**
+     * 空闲的播放器
+     */
+    private final ArrayDeque<HikVideoPlayer> mIdlePlayers = new ArrayDeque<>();
+    /**
+     * 预创建播放器的线程，避免在UI线程创建 native 句柄
+     */
+    private final ExecutorService mWorker = Executors.newSingleThreadExecutor();
+    /**
+     * 已创建的播放器数量（空闲 + 租用中）
+     */
+    private int mCreatedCount = 0;
+    private int mMaxPlayers = DEFAULT_MAX_PLAYERS;
+    private volatile PlayerFactory mFactory = SDK_FACTORY;
+
+    /**
+     * 播放器工厂
+     */
+    public interface PlayerFactory {
+        HikVideoPlayer create();
+    }
+
+    /**
+     * 海康 SDK 的播放器
+     */
+    public static final PlayerFactory SDK_FACTORY = new PlayerFactory() {
+        @Override
+        public HikVideoPlayer create() {
+            return HikVideoPlayerFactory.provideHikVideoPlayer();
+        }
+    };
+
+    private HikPlayerPool() {
+    }
+
+    public static HikPlayerPool getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * 设置池大小并在子线程中预创建播放器
+     *
+     * @param warmSize   预创建的播放器数量
+     * @param maxPlayers 同时存在的播放器数量上限
+     */
+    public void configure(int warmSize, int maxPlayers) {
+        synchronized (mLock) {
+            mMaxPlayers = Math.max(1, maxPlayers);
+        }
+        prewarm(warmSize);
+    }
+
+    /**
+     * 替换播放器工厂，丢弃之前创建的空闲播放器，已租用的播放器归还后仍会留在池中
+     */
+    public void setPlayerFactory(PlayerFactory factory) {
+        PlayerFactory newFactory = factory != null ? factory : SDK_FACTORY;
+        synchronized (mLock) {
+            if (newFactory == mFactory) {
+                return;
+            }
+            mFactory = newFactory;
+            mCreatedCount -= mIdlePlayers.size();
+            mIdlePlayers.clear();
+        }
+    }
+
+    /**
+     * 在子线程中补充空闲播放器，直到空闲数量达到 count 或达到上限
+     */
+    public void prewarm(final int count) {
+        mWorker.execute(new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    synchronized (mLock) {
+                        if (mIdlePlayers.size() >= count || mCreatedCount >= mMaxPlayers) {
+                            return;
+                        }
+                        mCreatedCount++;
+                    }
+                    HikVideoPlayer player = mFactory.create();
+                    synchronized (mLock) {
+                        mIdlePlayers.offer(player);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 租用一个播放器，没有空闲播放器时会直接创建
+     *
+     * @return 播放器，达到数量上限时返回 null
+     */
+    @Nullable
+    public HikVideoPlayer acquire() {
+        synchronized (mLock) {
+            HikVideoPlayer player = mIdlePlayers.poll();
+            if (player != null) {
+                return player;
+            }
+            if (mCreatedCount >= mMaxPlayers) {
+                Log.w(TAG, "acquire: player limit reached " + mMaxPlayers);
+                return null;
+            }
+            mCreatedCount++;
+        }
+        return mFactory.create();
+    }
+
+    /**
+     * 停止播放并重置播放器后归还到池中，重置在该播放器的串行队列中执行，保证排在未完成的开流之后
+     */
+    public void release(@Nullable final HikVideoPlayer player) {
+        if (player == null) {
+            return;
+        }
+        PlayerTaskExecutor.getInstance().release(player, new Runnable() {
+            @Override
+            public void run() {
+                reset(player);
+                synchronized (mLock) {
+                    mIdlePlayers.offer(player);
+                }
+            }
+        });
+    }
+
+    /**
+     * 恢复播放器的默认设置，避免上一次租用的状态影响下一次播放
+     */
+    private void reset(HikVideoPlayer player) {
+        try {
+            player.stopRecord();
+            player.enableSound(false);
+            player.closeDigitalZoom();
+            player.stopPlay();
+            player.setSurfaceTexture(null);
+            player.setHardDecodePlay(false);
+            player.setSmartDetect(true);
+        } catch (Exception e) {
+            Log.e(TAG, "reset: " + e.toString());
+        }
+    }
+}
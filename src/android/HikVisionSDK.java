@@ -2,21 +2,26 @@ package cn.cordova.hikvision.sdk;
 
 import android.util.Log;
 import android.content.Intent;
-import java.lang.reflect.Method;
 
 import org.apache.cordova.CallbackContext;
 import org.apache.cordova.CordovaPlugin;
+import org.apache.cordova.PluginResult;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.hikvision.open.hikvideoplayer.HikVideoPlayerFactory;
 
@@ -25,44 +30,244 @@ import com.hikvision.open.hikvideoplayer.HikVideoPlayerFactory;
  */
 public class HikVisionSDK extends CordovaPlugin {
     private static final String TAG = HikVisionSDK.class.getSimpleName();
+    /**
+     * 批量命令默认等待结果的时间
+     */
+    private static final long BATCH_TIMEOUT_MS = 10 * 1000;
+
+    /**
+     * 插件命令，对应 JS 中 callNative 的 name
+     */
+    interface Command {
+        void execute(JSONArray data, CallbackContext callbackContext) throws JSONException;
+    }
+
+    /**
+     * 命令表，插件初始化时注册，避免每次调用都通过反射查找方法
+     */
+    private final Map<String, Command> mCommands = new HashMap<>();
+    /**
+     * 嵌入网页的播放窗口，只在主线程中访问
+     */
+    private InlineVideoLayer mInlineLayer;
+
+    @Override
+    protected void pluginInitialize() {
+        super.pluginInitialize();
+        registerCommand("init", this::init);
+        registerCommand("provideHikVideoPlayer", this::provideHikVideoPlayer);
+        registerCommand("showHikVideoPage", this::showHikVideoPage);
+        registerCommand("showHikPlaybackPage", this::showHikPlaybackPage);
+        registerCommand("seekPlayback", this::seekPlayback);
+        registerCommand("pausePlayback", this::pausePlayback);
+        registerCommand("resumePlayback", this::resumePlayback);
+        registerCommand("getReconnectStats", this::getReconnectStats);
+        registerCommand("getStreamStats", this::getStreamStats);
+        registerCommand("subscribeEvents", this::subscribeEvents);
+        registerCommand("unsubscribeEvents", this::unsubscribeEvents);
+        registerCommand("batch", this::batch);
+        registerCommand("showInlineVideo", this::showInlineVideo);
+        registerCommand("updateInlineVideo", this::updateInlineVideo);
+        registerCommand("hideInlineVideo", this::hideInlineVideo);
+        registerCommand("capturePicture", this::capturePicture);
+        registerCommand("getThumbnails", this::getThumbnails);
+        registerCommand("queryMedia", this::queryMedia);
+        mInlineLayer = new InlineVideoLayer(webView.getView());
+    }
+
+    private void registerCommand(String action, Command command) {
+        mCommands.put(action, command);
+    }
+
+    @Override
+    public void onReset() {
+        super.onReset();
+        //页面刷新后之前的订阅回调已经失效
+        EventChannel.getInstance().unsubscribe();
+        //嵌入网页的播放窗口随页面关闭
+        mInlineLayer.hideAll();
+    }
+
+    @Override
+    public void onPause(boolean multitasking) {
+        super.onPause(multitasking);
+        mInlineLayer.onPause();
+    }
 
     @Override
-    public boolean execute(final String action, final JSONArray data, CallbackContext callbackContext) throws JSONException {
+    public void onResume(boolean multitasking) {
+        super.onResume(multitasking);
+        mInlineLayer.onResume();
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        mInlineLayer.hideAll();
+    }
+
+    @Override
+    public boolean execute(final String action, final JSONArray data, final CallbackContext callbackContext) throws JSONException {
+        final Command command = mCommands.get(action);
+        if (command == null) {
+            //返回 false 时 cordova 会以 INVALID_ACTION 回调 JS 的 errorCallback
+            Log.e(TAG, "execute: unknown action " + action);
+            return false;
+        }
         cordova.getThreadPool().execute(new Runnable() {
             @Override
             public void run() {
-                try {
-                    Method method = HikVisionSDK.class.getDeclaredMethod(action, JSONArray.class, CallbackContext.class);
-                    method.invoke(HikVisionSDK.this, data, callbackContext);
-                } catch (Exception e) {
-                    Log.e(TAG, e.toString());
-                }
+                runCommand(action, command, data, callbackContext);
             }
         });
         return true;
     }
 
+    private void runCommand(String action, Command command, JSONArray data, CallbackContext callbackContext) {
+        try {
+            command.execute(data, callbackContext);
+        } catch (Exception e) {
+            Log.e(TAG, action + ": " + e.toString());
+            callbackContext.error(action + " failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 批量执行命令，一次桥调用完成多个操作
+     * <p>
+     * 参数格式：{ 'commands': [{ 'action': string, 'args': array, 'player': string }], 'timeout': number }，
+     * player 默认取 args[0].url。同一个 player 的命令按顺序执行，不同 player 的命令并行执行，
+     * 所有命令返回结果或等待 timeout 毫秒后返回与 commands 顺序一致的结果：[{ 'action': string, 'status': 'ok' | 'error' | 'pending', 'result': any }]，
+     * 超时还没有结果的命令（例如等待第一帧画面的 showHikVideoPage）状态为 pending。
+     */
+    void batch(JSONArray data, CallbackContext callbackContext) throws JSONException {
+        JSONObject options = data.getJSONObject(0);
+        final JSONArray commands = options.getJSONArray("commands");
+        long timeout = options.optLong("timeout", BATCH_TIMEOUT_MS);
+        int count = commands.length();
+        String[] actions = new String[count];
+        //按 player 分组，保持命令的原始顺序
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            JSONObject item = commands.getJSONObject(i);
+            actions[i] = item.optString("action");
+            String key = getPlayerKey(item);
+            List<Integer> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(key, group);
+            }
+            group.add(i);
+        }
+        //汇总结果由最后一个返回的命令或超时任务发送，当前线程不等待
+        final BatchRequest request = new BatchRequest(callbackContext, webView, actions);
+        request.start(timeout);
+        for (final List<Integer> group : groups.values()) {
+            cordova.getThreadPool().execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (int index : group) {
+                        runBatchItem(commands.optJSONObject(index), request.get(index));
+                    }
+                }
+            });
+        }
+    }
+
+    private static String getPlayerKey(JSONObject item) {
+        String player = item.optString("player", null);
+        if (player != null) {
+            return player;
+        }
+        JSONArray args = item.optJSONArray("args");
+        JSONObject params = args == null ? null : args.optJSONObject(0);
+        return params == null ? "" : params.optString("url", "");
+    }
+
+    private void runBatchItem(JSONObject item, BatchCallbackContext callbackContext) {
+        String action = item.optString("action");
+        Command command = mCommands.get(action);
+        if (command == null || "batch".equals(action) || "subscribeEvents".equals(action)) {
+            //订阅需要保持回调，不能在批量命令中执行
+            callbackContext.error("Unsupported action in batch: " + action);
+            return;
+        }
+        JSONArray args = item.optJSONArray("args");
+        runCommand(action, command, args == null ? new JSONArray() : args, callbackContext);
+    }
+
     void init(JSONArray data, CallbackContext callbackContext) {
         //TODO: enableLog：在debug模式下打开日志，release关闭日志
         //TODO: 现阶段 appKey 不需要，直接传 null
+        //参数格式：{ 'playerPoolSize': number, 'maxPlayers': number, 'connectTimeout': number, 'reconnect': object, 'stallThreshold': number, 'backgroundGrace': number, 'recording': object }
         HikVideoPlayerFactory.initLib(null, true);
+        HikPlayerPool.getInstance().setPlayerFactory(HikPlayerPool.SDK_FACTORY);
+        JSONObject options = data.optJSONObject(0);
+        if (options != null) {
+            //预创建播放器
+            HikPlayerPool.getInstance().configure(options.optInt("playerPoolSize", 0), options.optInt("maxPlayers", 16));
+            //开流超时时间，单位毫秒
+            PlayerTaskExecutor.getInstance().setConnectTimeout(options.optLong("connectTimeout", 0));
+            //取流异常后的重连策略
+            ReconnectPolicy.configure(options.optJSONObject("reconnect"));
+            //画面超过该时间没有更新判定为卡顿，单位毫秒
+            FrameMonitor.setStallThreshold(options.optLong("stallThreshold", 0));
+            //进入后台后保持取流的时间，单位毫秒，0 代表立即停止
+            BackgroundGrace.setGracePeriod(options.optLong("backgroundGrace", -1));
+            //分段录像和录像目录的清理策略
+            SegmentRecorder.configure(options.optJSONObject("recording"));
+        }
+        callbackContext.success();
     }
 
     void provideHikVideoPlayer(JSONArray data, CallbackContext callbackContext) {
-        HikVideoPlayerFactory.provideHikVideoPlayer();
+        //确保播放器池中至少有一个空闲的播放器
+        HikPlayerPool.getInstance().prewarm(1);
+        callbackContext.success();
     }
 
-    void showHikVideoPage(JSONArray data, CallbackContext callbackContext) {
+    void showHikVideoPage(JSONArray data, final CallbackContext callbackContext) {
         String url = "";
         String title = "";
 
         try {
-            url = data.getJSONObject(0).getString("url");
-            title = data.getJSONObject(0).getString("title");
+            JSONObject params = data.getJSONObject(0);
+            if (params.has("cameras")) {
+                //多画面预览
+                JSONArray cameras = params.getJSONArray("cameras");
+                Intent intent = new Intent(cordova.getActivity(), GridPreviewActivity.class);
+                intent.putExtra("hikCameras", cameras.toString());
+                intent.putExtra("hikLayout", params.optInt("layout", cameras.length()));
+                intent.putExtra("hikTraceIds", beginTraces(cameras, callbackContext));
+                cordova.getActivity().startActivity(intent);
+                return;
+            }
+            url = params.getString("url");
+            title = params.getString("title");
             Intent intent = new Intent(cordova.getActivity(), PreviewActivity.class);
             //传入参数
             intent.putExtra("hikUrl", url);
             intent.putExtra("hikTitle", title);
+            //子码流地址，传入后根据窗口大小、网络类型和卡顿情况自动切换主/子码流
+            intent.putExtra("hikSubUrl", params.optString("subUrl", null));
+            //电子放大实现：native（播放器）或 transform（画面变换）
+            intent.putExtra("hikZoomEngine", params.optString("zoomEngine", "native"));
+            //统计开流各阶段耗时，第一帧画面显示后通过 successCallback 返回
+            StartupTrace startupTrace = StartupTrace.begin(url, new StartupTrace.OnTraceCompleteListener() {
+                @Override
+                public void onTraceComplete(StartupTrace trace) {
+                    callbackContext.success(trace.toJson());
+                }
+            });
+            intent.putExtra("hikTraceId", startupTrace.getId());
+            if (params.optBoolean("autoplay")) {
+                //自动播放：页面启动的同时预先开流，surface 可用后绑定画面
+                intent.putExtra("hikAutoPlay", true);
+                PreConnectSession session = PreConnectSession.start(url, startupTrace);
+                if (session != null) {
+                    intent.putExtra("hikSessionId", session.getId());
+                }
+            }
             cordova.getActivity().startActivity(intent);
 
         } catch (JSONException e) {
@@ -71,4 +276,245 @@ public class HikVisionSDK extends CordovaPlugin {
         }
 
     }
+
+    /**
+     * 在网页中显示播放窗口，不打开新页面
+     * <p>
+     * 参数格式：{ 'id': string, 'url': string, 'subUrl': string, 'title': string, 'rect': { 'x', 'y', 'width', 'height' }, 'below': boolean }，
+     * rect 为元素 getBoundingClientRect() 的结果，单位 CSS 像素；below 为 true 时窗口在 WebView 下方，网页对应区域需要透明
+     */
+    void showInlineVideo(JSONArray data, final CallbackContext callbackContext) throws JSONException {
+        final JSONObject params = data.getJSONObject(0);
+        final String id = params.getString("id");
+        final String url = params.getString("url");
+        final JSONObject rect = params.getJSONObject("rect");
+        cordova.getActivity().runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                if (mInlineLayer.show(id, url, params.optString("subUrl", null), params.optString("title"), rect, params.optBoolean("below"))) {
+                    callbackContext.success(id);
+                } else {
+                    callbackContext.error("Inline video is not supported.");
+                }
+            }
+        });
+    }
+
+    /**
+     * 更新网页中播放窗口的位置，参数格式：{ 'id': string, 'rect': { 'x', 'y', 'width', 'height' } }
+     */
+    void updateInlineVideo(JSONArray data, final CallbackContext callbackContext) throws JSONException {
+        final JSONObject params = data.getJSONObject(0);
+        final String id = params.getString("id");
+        final JSONObject rect = params.getJSONObject("rect");
+        cordova.getActivity().runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                if (mInlineLayer.update(id, rect)) {
+                    callbackContext.success();
+                } else {
+                    callbackContext.error("No inline video: " + id);
+                }
+            }
+        });
+    }
+
+    /**
+     * 关闭网页中的播放窗口，参数格式：{ 'id': string }
+     */
+    void hideInlineVideo(JSONArray data, final CallbackContext callbackContext) throws JSONException {
+        final String id = data.getJSONObject(0).getString("id");
+        cordova.getActivity().runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mInlineLayer.hide(id);
+                callbackContext.success();
+            }
+        });
+    }
+
+    /**
+     * 对正在播放的监控点抓图，参数格式：{ 'urls': [string], 'count': number, 'interval': number }
+     * <p>
+     * urls 为空时对所有正在播放的监控点抓图；count 大于 1 时按 interval 毫秒间隔连拍。
+     * 返回格式：[{ 'url': string, 'paths': [string], 'failed': number, 'error': string }]
+     */
+    void capturePicture(JSONArray data, final CallbackContext callbackContext) {
+        JSONObject params = data.optJSONObject(0);
+        if (params == null) {
+            params = new JSONObject();
+        }
+        List<String> urls = new ArrayList<>();
+        JSONArray urlArray = params.optJSONArray("urls");
+        if (urlArray != null) {
+            for (int i = 0; i < urlArray.length(); i++) {
+                urls.add(urlArray.optString(i));
+            }
+        } else {
+            urls = PlayerRegistry.getUrls();
+        }
+        CaptureService.getInstance().capture(cordova.getActivity(), urls, params.optInt("count", 1), params.optLong("interval", 0),
+                new CaptureService.OnCaptureListener() {
+                    @Override
+                    public void onCaptureComplete(JSONArray results) {
+                        callbackContext.success(results);
+                    }
+                });
+    }
+
+    /**
+     * 监控点最后一帧画面的缩略图，参数格式：{ 'urls': [string] }
+     * <p>
+     * 返回格式：{ url: 'file://...' }，没有缓存的监控点不返回
+     */
+    void getThumbnails(JSONArray data, CallbackContext callbackContext) throws JSONException {
+        JSONArray urls = data.getJSONObject(0).getJSONArray("urls");
+        ThumbnailCache cache = ThumbnailCache.getInstance(cordova.getActivity());
+        JSONObject result = new JSONObject();
+        for (int i = 0; i < urls.length(); i++) {
+            String url = urls.getString(i);
+            File file = cache.getFile(url);
+            if (file.exists()) {
+                result.put(url, "file://" + file.getAbsolutePath() + "?t=" + file.lastModified());
+            }
+        }
+        callbackContext.success(result);
+    }
+
+    /**
+     * 分页查询本地抓图和录像，参数格式：{ 'camera': string, 'type': 'capture' | 'record', 'from': number, 'to': number, 'limit': number, 'cursor': object }
+     * <p>
+     * 返回格式：{ 'items': [...], 'next': object }，next 不为空时作为下一页的 cursor
+     */
+    void queryMedia(JSONArray data, CallbackContext callbackContext) throws JSONException {
+        JSONObject params = data.optJSONObject(0);
+        callbackContext.success(MediaIndex.getInstance(cordova.getActivity()).query(params == null ? new JSONObject() : params));
+    }
+
+    /**
+     * 为多画面预览的每一路视频开始统计开流耗时，每一路结束时分别回调，最后一路回调后结束 callback
+     */
+    private String[] beginTraces(JSONArray cameras, final CallbackContext callbackContext) {
+        final AtomicInteger remaining = new AtomicInteger(cameras.length());
+        StartupTrace.OnTraceCompleteListener listener = new StartupTrace.OnTraceCompleteListener() {
+            @Override
+            public void onTraceComplete(StartupTrace trace) {
+                PluginResult result = new PluginResult(PluginResult.Status.OK, trace.toJson());
+                result.setKeepCallback(remaining.decrementAndGet() > 0);
+                callbackContext.sendPluginResult(result);
+            }
+        };
+        String[] traceIds = new String[cameras.length()];
+        for (int i = 0; i < cameras.length(); i++) {
+            JSONObject camera = cameras.optJSONObject(i);
+            traceIds[i] = StartupTrace.begin(camera == null ? "" : camera.optString("url"), listener).getId();
+        }
+        return traceIds;
+    }
+
+    /**
+     * 打开录像回放页面，参数格式：{ 'url': string, 'title': string, 'startTime': number, 'endTime': number }，时间为毫秒时间戳
+     */
+    void showHikPlaybackPage(JSONArray data, CallbackContext callbackContext) throws JSONException {
+        JSONObject params = data.getJSONObject(0);
+        Intent intent = new Intent(cordova.getActivity(), PlaybackActivity.class);
+        intent.putExtra("hikUrl", params.getString("url"));
+        intent.putExtra("hikTitle", params.optString("title"));
+        intent.putExtra("hikStartTime", params.getLong("startTime"));
+        intent.putExtra("hikEndTime", params.getLong("endTime"));
+        cordova.getActivity().startActivity(intent);
+        callbackContext.success();
+    }
+
+    /**
+     * 回放定位，参数格式：{ 'time': number }，时间为毫秒时间戳
+     * <p>
+     * 定位完成后返回：{ 'target': number, 'latency': number, 'skipped': number }，target 为实际定位的时间，
+     * 拖动过程中被后面的请求覆盖时返回最后一次定位的结果
+     */
+    void seekPlayback(JSONArray data, final CallbackContext callbackContext) throws JSONException {
+        PlaybackActivity activity = getPlayingPlayback(callbackContext);
+        if (activity != null) {
+            activity.seek(data.getJSONObject(0).getLong("time"), new SeekScheduler.OnSeekListener() {
+                @Override
+                public void onSeekComplete(long targetTime, boolean success, long latencyMs, int skipped) {
+                    if (!success) {
+                        callbackContext.error("Seek failed.");
+                        return;
+                    }
+                    JSONObject result = new JSONObject();
+                    try {
+                        result.put("target", targetTime);
+                        result.put("latency", latencyMs);
+                        result.put("skipped", skipped);
+                    } catch (JSONException e) {
+                        Log.e(TAG, e.toString());
+                    }
+                    callbackContext.success(result);
+                }
+            });
+        }
+    }
+
+    void pausePlayback(JSONArray data, CallbackContext callbackContext) {
+        PlaybackActivity activity = getPlayingPlayback(callbackContext);
+        if (activity != null) {
+            activity.pausePlayback(newControlListener("pause", callbackContext));
+        }
+    }
+
+    void resumePlayback(JSONArray data, CallbackContext callbackContext) {
+        PlaybackActivity activity = getPlayingPlayback(callbackContext);
+        if (activity != null) {
+            activity.resumePlayback(newControlListener("resume", callbackContext));
+        }
+    }
+
+    private static PlaybackActivity.OnControlListener newControlListener(final String name, final CallbackContext callbackContext) {
+        return new PlaybackActivity.OnControlListener() {
+            @Override
+            public void onControlResult(boolean success, int errorCode) {
+                if (success) {
+                    callbackContext.success();
+                } else {
+                    callbackContext.error(name + " failed, errorCode: " + Integer.toHexString(errorCode));
+                }
+            }
+        };
+    }
+
+    private PlaybackActivity getPlayingPlayback(CallbackContext callbackContext) {
+        PlaybackActivity activity = PlaybackActivity.getCurrent();
+        if (activity == null || !activity.isPlaying()) {
+            callbackContext.error("No playback is playing.");
+            return null;
+        }
+        return activity;
+    }
+
+    /**
+     * 各监控点的重连统计，格式：{ url: { 'reconnects': number, 'recoveries': number, 'failures': number, 'lastError': string } }
+     */
+    void getReconnectStats(JSONArray data, CallbackContext callbackContext) throws JSONException {
+        callbackContext.success(StreamReconnector.getStats());
+    }
+
+    /**
+     * 正在播放的画面帧率和卡顿统计，格式：[{ 'url': string, 'fps': number, 'jitter': number, 'stalled': boolean, 'stalls': number }]
+     */
+    void getStreamStats(JSONArray data, CallbackContext callbackContext) throws JSONException {
+        callbackContext.success(FrameMonitor.getStats());
+    }
+
+    /**
+     * 订阅播放器事件，回调保持打开，事件按固定间隔合并成数组返回
+     */
+    void subscribeEvents(JSONArray data, CallbackContext callbackContext) {
+        EventChannel.getInstance().subscribe(callbackContext);
+    }
+
+    void unsubscribeEvents(JSONArray data, CallbackContext callbackContext) {
+        EventChannel.getInstance().unsubscribe();
+        callbackContext.success();
+    }
 }
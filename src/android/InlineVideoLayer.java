@@ -0,0 +1,139 @@
+package cn.cordova.hikvision.sdk;
+
+import android.graphics.Color;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 嵌入网页的播放窗口
+ * <p>
+ * 不启动 PreviewActivity，直接把 {@link PreviewTile} 放在 WebView 的父布局中，位置和大小与 JS 传入的 DOM 区域一致。
+ * 默认覆盖在 WebView 上方；below 为 true 时放在 WebView 下方，需要网页对应区域透明。
+ * 网页滚动时只更新窗口的平移，大小不变时不会重新布局。
+ */
+public class InlineVideoLayer {
+    private static final String TAG = "InlineVideoLayer";
+
+    private final View mWebView;
+    private final Map<String, PreviewTile> mTiles = new HashMap<>();
+    private boolean mWebViewTransparent = false;
+
+    public InlineVideoLayer(@NonNull View webView) {
+        mWebView = webView;
+    }
+
+    /**
+     * 显示播放窗口，id 已存在时只更新位置
+     *
+     * @param rect 网页中的区域，格式：{ 'x': number, 'y': number, 'width': number, 'height': number }，单位 CSS 像素
+     * @return false-WebView 没有可以添加窗口的父布局
+     */
+    @UiThread
+    public boolean show(@NonNull String id, String url, @Nullable String subUrl, String title, @NonNull JSONObject rect, boolean below) {
+        if (mTiles.containsKey(id)) {
+            update(id, rect);
+            return true;
+        }
+        if (!(mWebView.getParent() instanceof ViewGroup)) {
+            Log.e(TAG, "show: webView has no parent");
+            return false;
+        }
+        ViewGroup parent = (ViewGroup) mWebView.getParent();
+        PreviewTile tile = new PreviewTile(mWebView.getContext(), url, subUrl, title);
+        View view = tile.getView();
+        view.setLayoutParams(new FrameLayout.LayoutParams(0, 0));
+        if (below) {
+            //窗口在 WebView 下方，WebView 背景需要透明
+            if (!mWebViewTransparent) {
+                mWebView.setBackgroundColor(Color.TRANSPARENT);
+                mWebViewTransparent = true;
+            }
+            parent.addView(view, parent.indexOfChild(mWebView));
+        } else {
+            parent.addView(view);
+        }
+        mTiles.put(id, tile);
+        applyRect(view, rect);
+        return true;
+    }
+
+    /**
+     * 网页滚动或窗口大小变化时更新位置
+     *
+     * @return false-没有该窗口
+     */
+    @UiThread
+    public boolean update(@NonNull String id, @NonNull JSONObject rect) {
+        PreviewTile tile = mTiles.get(id);
+        if (tile == null) {
+            return false;
+        }
+        applyRect(tile.getView(), rect);
+        return true;
+    }
+
+    /**
+     * 关闭播放窗口，播放器归还到播放器池
+     */
+    @UiThread
+    public boolean hide(@NonNull String id) {
+        PreviewTile tile = mTiles.remove(id);
+        if (tile == null) {
+            return false;
+        }
+        tile.release();
+        ViewGroup parent = (ViewGroup) tile.getView().getParent();
+        if (parent != null) {
+            parent.removeView(tile.getView());
+        }
+        return true;
+    }
+
+    @UiThread
+    public void hideAll() {
+        for (String id : mTiles.keySet().toArray(new String[0])) {
+            hide(id);
+        }
+    }
+
+    @UiThread
+    public void onResume() {
+        for (PreviewTile tile : mTiles.values()) {
+            tile.onResume();
+        }
+    }
+
+    @UiThread
+    public void onPause() {
+        for (PreviewTile tile : mTiles.values()) {
+            tile.onPause();
+        }
+    }
+
+    /**
+     * CSS 像素转换为屏幕像素，并加上 WebView 在父布局中的偏移
+     */
+    private void applyRect(View view, JSONObject rect) {
+        float density = mWebView.getResources().getDisplayMetrics().density;
+        int width = Math.round((float) rect.optDouble("width", 0) * density);
+        int height = Math.round((float) rect.optDouble("height", 0) * density);
+        ViewGroup.LayoutParams layoutParams = view.getLayoutParams();
+        if (layoutParams.width != width || layoutParams.height != height) {
+            layoutParams.width = width;
+            layoutParams.height = height;
+            view.setLayoutParams(layoutParams);
+        }
+        view.setTranslationX(mWebView.getLeft() + (float) rect.optDouble("x", 0) * density);
+        view.setTranslationY(mWebView.getTop() + (float) rect.optDouble("y", 0) * density);
+    }
+}
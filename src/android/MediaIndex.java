@@ -0,0 +1,220 @@
+package cn.cordova.hikvision.sdk;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 本地抓图和录像的索引
+ * <p>
+ * 抓图、录像完成时写入 SQLite，记录监控点、类型、起止时间、文件大小和缩略图，按监控点和时间建索引，
+ * 查询时不需要遍历目录。写入在后台线程中执行；分页使用上一页最后一条的时间和 id 作为游标，翻页速度与数据量无关。
+ */
+public class MediaIndex {
+    private static final String TAG = "MediaIndex";
+
+    public static final String TYPE_CAPTURE = "capture";
+    public static final String TYPE_RECORD = "record";
+
+    private static final String DB_NAME = "hik_media.db";
+    private static final int DB_VERSION = 1;
+    private static final String TABLE = "media";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static volatile MediaIndex sInstance;
+
+    private final DbHelper mDbHelper;
+    private final ExecutorService mWriteExecutor;
+
+    private MediaIndex(Context context) {
+        mDbHelper = new DbHelper(context);
+        mWriteExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "hik-media-index");
+                thread.setPriority(Thread.MIN_PRIORITY);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public static MediaIndex getInstance(@NonNull Context context) {
+        if (sInstance == null) {
+            synchronized (MediaIndex.class) {
+                if (sInstance == null) {
+                    sInstance = new MediaIndex(context.getApplicationContext());
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 录像文件对应的缩略图路径，与录像在同一目录
+     */
+    public static String getThumbnailPath(@NonNull String recordPath) {
+        int dot = recordPath.lastIndexOf('.');
+        return (dot > 0 ? recordPath.substring(0, dot) : recordPath) + ".jpg";
+    }
+
+    /**
+     * 添加一条记录，文件大小在写入时读取
+     *
+     * @param camera    监控点地址
+     * @param type      {@link #TYPE_CAPTURE} 或 {@link #TYPE_RECORD}
+     * @param thumbnail 缩略图路径，抓图为图片本身
+     */
+    public void add(@Nullable final String camera, @NonNull final String type, @NonNull final String path,
+                    final long startTime, final long endTime, @Nullable final String thumbnail) {
+        mWriteExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ContentValues values = new ContentValues();
+                values.put("camera", camera == null ? "" : camera);
+                values.put("type", type);
+                values.put("path", path);
+                values.put("start_time", startTime);
+                values.put("end_time", endTime);
+                values.put("size", new File(path).length());
+                values.put("thumbnail", thumbnail != null && new File(thumbnail).exists() ? thumbnail : null);
+                try {
+                    mDbHelper.getWritableDatabase().insertWithOnConflict(TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                } catch (Exception e) {
+                    Log.e(TAG, "add: " + e.toString());
+                }
+            }
+        });
+    }
+
+    /**
+     * 文件被删除后移除记录
+     */
+    public void remove(@NonNull final String path) {
+        mWriteExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mDbHelper.getWritableDatabase().delete(TABLE, "path = ?", new String[]{path});
+                } catch (Exception e) {
+                    Log.e(TAG, "remove: " + e.toString());
+                }
+            }
+        });
+    }
+
+    /**
+     * 查询，参数格式：{ 'camera': string, 'type': string, 'from': number, 'to': number, 'limit': number, 'cursor': object }
+     * <p>
+     * 返回与 [from, to) 时间段有重叠的记录，按开始时间从新到旧排列。cursor 为上一页返回的 next，没有更多数据时 next 为空。
+     * 返回格式：{ 'items': [{ 'id', 'camera', 'type', 'path', 'startTime', 'endTime', 'size', 'thumbnail' }], 'next': { 'time', 'id' } }
+     */
+    @WorkerThread
+    public JSONObject query(@NonNull JSONObject params) throws JSONException {
+        StringBuilder selection = new StringBuilder("1 = 1");
+        List<String> args = new ArrayList<>();
+        String camera = params.optString("camera", null);
+        if (camera != null) {
+            selection.append(" AND camera = ?");
+            args.add(camera);
+        }
+        String type = params.optString("type", null);
+        if (type != null) {
+            selection.append(" AND type = ?");
+            args.add(type);
+        }
+        if (params.has("from")) {
+            selection.append(" AND end_time >= ?");
+            args.add(String.valueOf(params.getLong("from")));
+        }
+        if (params.has("to")) {
+            selection.append(" AND start_time < ?");
+            args.add(String.valueOf(params.getLong("to")));
+        }
+        JSONObject cursorParams = params.optJSONObject("cursor");
+        if (cursorParams != null) {
+            String time = String.valueOf(cursorParams.getLong("time"));
+            selection.append(" AND (start_time < ? OR (start_time = ? AND _id < ?))");
+            args.add(time);
+            args.add(time);
+            args.add(String.valueOf(cursorParams.getLong("id")));
+        }
+        int limit = Math.max(1, Math.min(params.optInt("limit", DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE));
+
+        JSONArray items = new JSONArray();
+        JSONObject next = null;
+        Cursor cursor = mDbHelper.getReadableDatabase().query(TABLE, null, selection.toString(),
+                args.toArray(new String[0]), null, null, "start_time DESC, _id DESC", String.valueOf(limit + 1));
+        try {
+            while (cursor.moveToNext()) {
+                if (items.length() == limit) {
+                    //多查一条判断是否还有下一页
+                    JSONObject last = items.getJSONObject(limit - 1);
+                    next = new JSONObject();
+                    next.put("time", last.getLong("startTime"));
+                    next.put("id", last.getLong("id"));
+                    break;
+                }
+                JSONObject item = new JSONObject();
+                item.put("id", cursor.getLong(cursor.getColumnIndexOrThrow("_id")));
+                item.put("camera", cursor.getString(cursor.getColumnIndexOrThrow("camera")));
+                item.put("type", cursor.getString(cursor.getColumnIndexOrThrow("type")));
+                item.put("path", cursor.getString(cursor.getColumnIndexOrThrow("path")));
+                item.put("startTime", cursor.getLong(cursor.getColumnIndexOrThrow("start_time")));
+                item.put("endTime", cursor.getLong(cursor.getColumnIndexOrThrow("end_time")));
+                item.put("size", cursor.getLong(cursor.getColumnIndexOrThrow("size")));
+                item.put("thumbnail", cursor.getString(cursor.getColumnIndexOrThrow("thumbnail")));
+                items.put(item);
+            }
+        } finally {
+            cursor.close();
+        }
+        JSONObject result = new JSONObject();
+        result.put("items", items);
+        result.put("next", next == null ? JSONObject.NULL : next);
+        return result;
+    }
+
+    private static class DbHelper extends SQLiteOpenHelper {
+        DbHelper(Context context) {
+            super(context, DB_NAME, null, DB_VERSION);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE " + TABLE + " ("
+                    + "_id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                    + "camera TEXT NOT NULL, "
+                    + "type TEXT NOT NULL, "
+                    + "path TEXT NOT NULL UNIQUE, "
+                    + "start_time INTEGER NOT NULL, "
+                    + "end_time INTEGER NOT NULL, "
+                    + "size INTEGER NOT NULL, "
+                    + "thumbnail TEXT)");
+            db.execSQL("CREATE INDEX idx_media_camera_time ON " + TABLE + " (camera, start_time)");
+            db.execSQL("CREATE INDEX idx_media_time ON " + TABLE + " (start_time)");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        }
+    }
+}
@@ -8,9 +8,13 @@ import android.util.Log;
 import android.view.View;
 
 import java.io.File;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Calendar;
 import java.util.Locale;
 
+import hik.common.isms.hpsclient.AbsTime;
+
 import static android.os.Environment.DIRECTORY_MOVIES;
 import static android.os.Environment.DIRECTORY_PICTURES;
 
@@ -22,8 +26,15 @@ public class MyUtils {
      * 抓图路径格式：/storage/emulated/0/Android/data/com.hikvision.open.app/files/Pictures/_20180917151634445.jpg
      */
     public static String getCaptureImagePath(Context context) {
+        return getCaptureImagePath(context, "");
+    }
+
+    /**
+     * 抓图路径，同一毫秒内多路或连拍抓图时通过 name 区分
+     */
+    public static String getCaptureImagePath(Context context, String name) {
         File file = context.getExternalFilesDir(DIRECTORY_PICTURES);
-        String path = file.getAbsolutePath() + File.separator + MyUtils.getFileName("") + ".jpg";
+        String path = file.getAbsolutePath() + File.separator + MyUtils.getFileName(name) + ".jpg";
         Log.i(TAG, "getCaptureImagePath: " + path);
         return path;
     }
@@ -39,6 +50,29 @@ public class MyUtils {
         return path;
     }
 
+    /**
+     * 监控点的分段录像目录：/storage/emulated/0/Android/data/com.hikvision.open.app/files/Movies/{监控点地址的md5}
+     */
+    public static File getRecordDir(Context context, String url) {
+        return new File(context.getExternalFilesDir(DIRECTORY_MOVIES), md5(url));
+    }
+
+    /**
+     * 字符串的md5，用作文件名
+     */
+    public static String md5(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes());
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+
     /**
      * 获取文件名称（监控点名称_年月日时分秒毫秒）
      *
@@ -58,6 +92,25 @@ public class MyUtils {
     }
 
 
+    /**
+     * 毫秒时间戳转换为回放使用的 AbsTime
+     *
+     * @param timeMillis 毫秒时间戳
+     */
+    public static AbsTime toAbsTime(long timeMillis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(timeMillis);
+        AbsTime absTime = new AbsTime();
+        absTime.setYear(calendar.get(Calendar.YEAR));
+        absTime.setMonth(calendar.get(Calendar.MONTH) + 1);
+        absTime.setDay(calendar.get(Calendar.DAY_OF_MONTH));
+        absTime.setHour(calendar.get(Calendar.HOUR_OF_DAY));
+        absTime.setMinute(calendar.get(Calendar.MINUTE));
+        absTime.setSecond(calendar.get(Calendar.SECOND));
+        return absTime;
+    }
+
+
     @NonNull
     public static Activity getActivity(View view) {
         for (Context context = view.getContext(); context instanceof ContextWrapper; context = ((ContextWrapper) context).getBaseContext()) {
@@ -0,0 +1,576 @@
+package cn.cordova.hikvision.sdk;
+
+import your.app.package.name.R;
+
+import android.content.Intent;
+import android.graphics.SurfaceTexture;
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.SwitchCompat;
+import android.text.TextUtils;
+import android.util.Log;
+import android.view.TextureView;
+import android.view.View;
+import android.view.WindowManager;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.ProgressBar;
+import android.widget.SeekBar;
+import android.widget.TextView;
+
+import com.blankj.utilcode.util.ToastUtils;
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+import com.hikvision.open.hikvideoplayer.HikVideoPlayerCallback;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.lang.ref.WeakReference;
+import java.text.MessageFormat;
+import java.util.Collections;
+
+import hik.common.isms.hpsclient.AbsTime;
+
+/**
+ * 录像回放页面，支持按时间段回放、拖动定位、暂停和恢复
+ * <p>
+ * 错误码开头：17是mgc或媒体取流SDK的错误，18是vod，19是dac
+ */
+public class PlaybackActivity extends AppCompatActivity implements View.OnClickListener, HikVideoPlayerCallback, TextureView.SurfaceTextureListener {
+    private static final String TAG = "PlaybackActivity";
+    /**
+     * 刷新播放进度的间隔
+     */
+    private static final long OSD_REFRESH_INTERVAL_MS = 1000;
+
+    /**
+     * 当前显示的回放页面，供插件调用 seek/pause/resume
+     */
+    private static WeakReference<PlaybackActivity> sCurrent = new WeakReference<>(null);
+
+    /**
+     * 播放区域
+     */
+    protected TextureView textureView;
+    protected ProgressBar progressBar;
+    protected TextView playHintText;
+    protected SeekBar timeBar;
+    /**
+     * 控制按钮
+     */
+    protected EditText playbackUriEdit;
+    protected Button start;
+    protected Button stop;
+    protected Button captureButton;
+    protected Button soundButton;
+    protected Button pauseButton;
+    protected SwitchCompat decodeSwitch;
+    protected SwitchCompat smartSwitch;
+    private TextView mRecordFilePathText;
+
+    private String mUri;
+    private long mStartTime;
+    private long mEndTime;
+    private HikVideoPlayer mPlayer;
+    /**
+     * 拖动时间轴时合并定位请求
+     */
+    private SeekScheduler mSeekScheduler;
+    private boolean mSoundOpen = false;
+    private boolean mPaused = false;
+    /**
+     * 打开页面后自动从请求的时间开始回放，只执行一次
+     */
+    private boolean mAutoPlay = true;
+    private final PlayerStateMachine mState = new PlayerStateMachine();//默认闲置
+
+    @Nullable
+    static PlaybackActivity getCurrent() {
+        return sCurrent.get();
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        getWindow().setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_STATE_ALWAYS_HIDDEN);//防止键盘弹出
+        super.setContentView(R.layout.activity_playback);
+        initView();
+        mPlayer = HikPlayerPool.getInstance().acquire();
+        if (mPlayer == null) {
+            ToastUtils.showShort("播放窗口数量已达上限");
+            finish();
+            return;
+        }
+        mSeekScheduler = new SeekScheduler(mPlayer, this, new SeekScheduler.OnSeekListener() {
+            @Override
+            public void onSeekComplete(long targetTime, boolean success, long latencyMs, int skipped) {
+                Log.i(TAG, "onSeekComplete: success = " + success + ", latency = " + latencyMs + "ms, skipped = " + skipped);
+                EventChannel.getInstance().post(EventChannel.EVENT_SEEK, mUri, "target", targetTime, "success", success,
+                        "latency", latencyMs, "skipped", skipped);
+            }
+        });
+        mState.addListener(new PlayerStateMachine.OnStatusChangeListener() {
+            @Override
+            public void onStatusChange(PlayerStatus from, PlayerStatus to) {
+                EventChannel.getInstance().post(EventChannel.EVENT_STATE, mUri, "from", from.name(), "to", to.name());
+            }
+        });
+        sCurrent = new WeakReference<>(this);
+    }
+
+    private void initView() {
+        textureView = findViewById(R.id.texture_view);
+        progressBar = findViewById(R.id.progress_bar);
+        playHintText = findViewById(R.id.result_hint_text);
+        timeBar = findViewById(R.id.time_bar);
+        playbackUriEdit = findViewById(R.id.playback_uri_edit);
+        start = findViewById(R.id.start);
+        stop = findViewById(R.id.stop);
+        captureButton = findViewById(R.id.capture_button);
+        soundButton = findViewById(R.id.sound_button);
+        pauseButton = findViewById(R.id.pause_button);
+        decodeSwitch = findViewById(R.id.decode_switch);
+        smartSwitch = findViewById(R.id.smart_switch);
+        mRecordFilePathText = findViewById(R.id.record_file_path_text);
+        findViewById(R.id.record_button).setVisibility(View.GONE);
+        start.setOnClickListener(this);
+        stop.setOnClickListener(this);
+        captureButton.setOnClickListener(this);
+        soundButton.setOnClickListener(this);
+        pauseButton.setOnClickListener(this);
+        readIntent(getIntent());
+        timeBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                if (fromUser) {
+                    //拖动过程中持续定位，由 SeekScheduler 合并为最新的位置
+                    seek(mStartTime + progress * 1000L, null);
+                }
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {
+                timeBar.removeCallbacks(mOsdRefreshTask);
+            }
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {
+                //最后的位置已经在 onProgressChanged 中提交，定位成功后会重新开始刷新进度
+            }
+        });
+        textureView.setSurfaceTextureListener(this);
+    }
+
+    /**
+     * 读取回放地址和时间段
+     */
+    private void readIntent(Intent intent) {
+        mUri = intent.getStringExtra("hikUrl");
+        mStartTime = intent.getLongExtra("hikStartTime", 0);
+        mEndTime = intent.getLongExtra("hikEndTime", 0);
+        playbackUriEdit.setText(mUri);
+        //进度条以秒为单位
+        timeBar.setMax((int) Math.max(0, (mEndTime - mStartTime) / 1000));
+        timeBar.setProgress(0);
+    }
+
+    /**
+     * 页面是 singleInstance，再次打开回放时不会重新创建，停止当前回放后按新的地址和时间段重新开始
+     */
+    @Override
+    protected void onNewIntent(Intent intent) {
+        super.onNewIntent(intent);
+        setIntent(intent);
+        if (mPlayer == null) {
+            return;
+        }
+        //声音开关需要在播放中才能关闭，先重置操作状态
+        resetExecuteState();
+        //先切换状态再更新地址，状态事件仍然属于上一次回放
+        if (mState.moveTo(PlayerStatus.IDLE)) {
+            PlayerRegistry.unregister(mPlayer);
+            PlayerTaskExecutor.getInstance().stopPlay(mPlayer);
+        }
+        progressBar.setVisibility(View.GONE);
+        playHintText.setVisibility(View.VISIBLE);
+        playHintText.setText("");
+        readIntent(intent);
+        mAutoPlay = true;
+        if (textureView.isAvailable()) {
+            onSurfaceTextureAvailable(textureView.getSurfaceTexture(), textureView.getWidth(), textureView.getHeight());
+        }
+    }
+
+    @Override
+    public void onClick(View view) {
+        if (view.getId() == R.id.start) {
+            if (!mState.isOneOf(PlayerStatus.SUCCESS, PlayerStatus.LOADING) && checkPlaybackParams()) {
+                startPlayback(textureView.getSurfaceTexture());
+            }
+        } else if (view.getId() == R.id.stop) {
+            if (mState.transitionFrom(PlayerStateMachine.ACTIVE, PlayerStatus.IDLE)) {//释放这个窗口
+                progressBar.setVisibility(View.GONE);
+                playHintText.setVisibility(View.VISIBLE);
+                playHintText.setText("");
+                resetExecuteState();
+                PlayerRegistry.unregister(mPlayer);
+                PlayerTaskExecutor.getInstance().stopPlay(mPlayer);
+            }
+        } else if (view.getId() == R.id.capture_button) {
+            if (!mState.is(PlayerStatus.SUCCESS)) {
+                ToastUtils.showShort("没有视频在播放");
+                return;
+            }
+            //抓图在后台线程中执行，不阻塞主线程
+            CaptureService.getInstance().capture(this, Collections.singletonList(mUri), 1, 0, new CaptureService.OnCaptureListener() {
+                @Override
+                public void onCaptureComplete(JSONArray results) {
+                    JSONObject result = results.optJSONObject(0);
+                    final String path = result == null ? null : result.optJSONArray("paths").optString(0, null);
+                    if (path != null) {
+                        runOnUiThread(new Runnable() {
+                            @Override
+                            public void run() {
+                                ToastUtils.showShort("抓图成功");
+                                mRecordFilePathText.setText(MessageFormat.format("当前抓图路径: {0}", path));
+                            }
+                        });
+                    }
+                }
+            });
+        } else if (view.getId() == R.id.sound_button) {
+            executeSoundEvent();
+        } else if (view.getId() == R.id.pause_button) {
+            if (mPaused) {
+                resumePlayback(null);
+            } else {
+                pausePlayback(null);
+            }
+        }
+    }
+
+    /**
+     * 执行声音开关事件
+     */
+    private void executeSoundEvent() {
+        if (!mState.is(PlayerStatus.SUCCESS)) {
+            ToastUtils.showShort("没有视频在播放");
+            return;
+        }
+        if (mPlayer.enableSound(!mSoundOpen)) {
+            mSoundOpen = !mSoundOpen;
+            ToastUtils.showShort(mSoundOpen ? "声音开" : "声音关");
+            soundButton.setText(mSoundOpen ? R.string.sound_close : R.string.sound_open);
+        }
+    }
+
+    /**
+     * 重置所有的操作状态
+     */
+    private void resetExecuteState() {
+        if (mSoundOpen) {
+            executeSoundEvent();
+        }
+        mPaused = false;
+        pauseButton.setText(R.string.pause);
+        timeBar.removeCallbacks(mOsdRefreshTask);
+        mSeekScheduler.cancel();
+    }
+
+    /**
+     * 暂停、恢复的结果回调，在子线程中回调
+     */
+    public interface OnControlListener {
+        /**
+         * @param success   pause() / resume() 的返回值
+         * @param errorCode 失败时播放器的错误码，没有在回放时为 0
+         */
+        @WorkerThread
+        void onControlResult(boolean success, int errorCode);
+    }
+
+    /**
+     * 定位到指定时间
+     *
+     * @param time     回放的绝对时间，单位毫秒
+     * @param listener 定位结果和实际的定位耗时，没有在回放时直接以 success 为 false 回调
+     */
+    public void seek(final long time, @Nullable SeekScheduler.OnSeekListener listener) {
+        if (!mState.is(PlayerStatus.SUCCESS)) {
+            //没有在回放，直接回调失败
+            if (listener != null) {
+                listener.onSeekComplete(time, false, 0, 0);
+            }
+            return;
+        }
+        //seekAbsPlayback() 会阻塞当前线程，连续的定位请求只执行最新的一个
+        mSeekScheduler.requestSeek(time, listener);
+        timeBar.post(new Runnable() {
+            @Override
+            public void run() {
+                timeBar.setProgress((int) ((time - mStartTime) / 1000));
+            }
+        });
+    }
+
+    /**
+     * 暂停回放，pause() 调用成功后才切换按钮和进度刷新
+     */
+    public void pausePlayback(@Nullable final OnControlListener listener) {
+        if (!mState.is(PlayerStatus.SUCCESS)) {
+            if (listener != null) {
+                listener.onControlResult(false, 0);
+            }
+            return;
+        }
+        final HikVideoPlayer player = mPlayer;
+        PlayerTaskExecutor.getInstance().execute(player, new Runnable() {
+            @Override
+            public void run() {
+                boolean success = player.pause();
+                if (success) {
+                    runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            mPaused = true;
+                            pauseButton.setText(R.string.resume);
+                            timeBar.removeCallbacks(mOsdRefreshTask);
+                        }
+                    });
+                } else {
+                    Log.w(TAG, "pausePlayback: errorCode = " + player.getLastError());
+                }
+                if (listener != null) {
+                    listener.onControlResult(success, success ? 0 : player.getLastError());
+                }
+            }
+        });
+    }
+
+    /**
+     * 恢复回放，resume() 调用成功后才切换按钮和进度刷新
+     */
+    public void resumePlayback(@Nullable final OnControlListener listener) {
+        if (!mState.is(PlayerStatus.SUCCESS)) {
+            if (listener != null) {
+                listener.onControlResult(false, 0);
+            }
+            return;
+        }
+        final HikVideoPlayer player = mPlayer;
+        PlayerTaskExecutor.getInstance().execute(player, new Runnable() {
+            @Override
+            public void run() {
+                boolean success = player.resume();
+                if (success) {
+                    runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            mPaused = false;
+                            pauseButton.setText(R.string.pause);
+                            timeBar.removeCallbacks(mOsdRefreshTask);
+                            timeBar.postDelayed(mOsdRefreshTask, OSD_REFRESH_INTERVAL_MS);
+                        }
+                    });
+                } else {
+                    Log.w(TAG, "resumePlayback: errorCode = " + player.getLastError());
+                }
+                if (listener != null) {
+                    listener.onControlResult(success, success ? 0 : player.getLastError());
+                }
+            }
+        });
+    }
+
+    public boolean isPlaying() {
+        return mState.is(PlayerStatus.SUCCESS);
+    }
+
+    /**
+     * 按播放器的 OSD 时间刷新进度条
+     */
+    private final Runnable mOsdRefreshTask = new Runnable() {
+        @Override
+        public void run() {
+            if (!mState.is(PlayerStatus.SUCCESS) || mPaused) {
+                return;
+            }
+            long osdTime = mPlayer.getOSDTime();
+            if (osdTime > 0) {
+                timeBar.setProgress((int) ((osdTime - mStartTime) / 1000));
+            }
+            timeBar.postDelayed(this, OSD_REFRESH_INTERVAL_MS);
+        }
+    };
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        //TODO 注意:APP前后台切换时 SurfaceTextureListener可能在有某些 华为手机 上不会回调，例如：华为P20，所以我们在这里手动调用
+        if (textureView.isAvailable()) {
+            onSurfaceTextureAvailable(textureView.getSurfaceTexture(), textureView.getWidth(), textureView.getHeight());
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        //TODO 注意:APP前后台切换时 SurfaceTextureListener可能在有某些 华为手机 上不会回调，例如：华为P20，所以我们在这里手动调用
+        if (textureView.isAvailable()) {
+            onSurfaceTextureDestroyed(textureView.getSurfaceTexture());
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (sCurrent.get() == this) {
+            sCurrent.clear();
+        }
+        timeBar.removeCallbacks(mOsdRefreshTask);
+        //停止播放并把播放器归还到播放器池
+        PlayerRegistry.unregister(mPlayer);
+        HikPlayerPool.getInstance().release(mPlayer);
+        mPlayer = null;
+    }
+
+    /**
+     * 开始回放
+     *
+     * @param surface 渲染画面
+     */
+    private void startPlayback(SurfaceTexture surface) {
+        if (!mState.moveTo(PlayerStatus.LOADING)) {
+            //加载中或播放中，忽略重复开流
+            return;
+        }
+        progressBar.setVisibility(View.VISIBLE);
+        playHintText.setVisibility(View.GONE);
+        mPlayer.setHardDecodePlay(decodeSwitch.isChecked());
+        mPlayer.setSmartDetect(smartSwitch.isChecked());
+        mPlayer.setSurfaceTexture(surface);
+        final HikVideoPlayer player = mPlayer;
+        final String uri = mUri;
+        final AbsTime startTime = MyUtils.toAbsTime(mStartTime);
+        final AbsTime endTime = MyUtils.toAbsTime(mEndTime);
+        //TODO 注意: startPlayback() 方法会阻塞当前线程，交给 PlayerTaskExecutor 执行
+        PlayerTaskExecutor.getInstance().startPlay(player, new PlayerTaskExecutor.StartTask() {
+            //字符串时间的重载直接交给 native 层解析，SDK 没有说明格式，继续使用 AbsTime 重载
+            @SuppressWarnings("deprecation")
+            @Override
+            public boolean start(HikVideoPlayerCallback callback) {
+                return player.startPlayback(uri, startTime, endTime, callback);
+            }
+        }, this);
+    }
+
+    /**
+     * 播放结果回调
+     *
+     * @param status    共四种状态：SUCCESS（播放成功）、FAILED（播放失败）、EXCEPTION（取流异常）、FINISH（回放结束）
+     * @param errorCode 错误码，只有 FAILED 和 EXCEPTION 才有值
+     */
+    @Override
+    @WorkerThread
+    public void onPlayerStatus(@NonNull Status status, int errorCode) {
+        //TODO 注意: 由于 HikVideoPlayerCallback 是在子线程中进行回调的，所以一定要切换到主线程处理UI
+        runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                if (!mState.moveTo(PlayerStateMachine.of(status))) {
+                    //停止或重新开流后迟到的回调，转换表不允许，忽略
+                    return;
+                }
+                //只发送状态机接受的结果，迟到的回调不再通知 JS
+                EventChannel.getInstance().postStatus(mUri, status, errorCode);
+                progressBar.setVisibility(View.GONE);
+                if (status == Status.SUCCESS) {
+                    PlayerRegistry.register(mPlayer, mUri, null);
+                } else {
+                    PlayerRegistry.unregister(mPlayer);
+                }
+                switch (status) {
+                    case SUCCESS:
+                        //播放成功，seek 成功也会回调
+                        playHintText.setVisibility(View.GONE);
+                        textureView.setKeepScreenOn(true);//保持亮屏
+                        timeBar.removeCallbacks(mOsdRefreshTask);
+                        timeBar.postDelayed(mOsdRefreshTask, OSD_REFRESH_INTERVAL_MS);
+                        break;
+                    case FAILED:
+                        //播放失败
+                        playHintText.setVisibility(View.VISIBLE);
+                        playHintText.setText(MessageFormat.format("回放失败，错误码：{0}", Integer.toHexString(errorCode)));
+                        break;
+                    case EXCEPTION:
+                        //取流异常
+                        PlayerTaskExecutor.getInstance().stopPlay(mPlayer);//TODO 注意:异常时关闭取流
+                        playHintText.setVisibility(View.VISIBLE);
+                        playHintText.setText(MessageFormat.format("取流发生异常，错误码：{0}", Integer.toHexString(errorCode)));
+                        break;
+                    case FINISH:
+                        //回放结束
+                        resetExecuteState();
+                        PlayerTaskExecutor.getInstance().stopPlay(mPlayer);
+                        playHintText.setVisibility(View.VISIBLE);
+                        playHintText.setText("回放结束");
+                        break;
+                }
+            }
+        });
+    }
+
+    private boolean checkPlaybackParams() {
+        if (TextUtils.isEmpty(mUri)) {
+            ToastUtils.showShort("视频地址获取失败");
+            return false;
+        }
+        if (!mUri.contains("rtsp")) {
+            ToastUtils.showShort("视频地址链接错误");
+            return false;
+        }
+        if (mEndTime <= mStartTime) {
+            ToastUtils.showShort("回放时间段错误");
+            return false;
+        }
+        return true;
+    }
+
+
+    /*************************TextureView.SurfaceTextureListener 接口的回调方法********************/
+    //TODO 注意:APP前后台切换时 SurfaceTextureListener可能在有某些华为手机上不会回调，例如：华为P20，因此我们需要在Activity生命周期中手动调用回调方法
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture surface, int width, int height) {
+        if (mAutoPlay && mState.is(PlayerStatus.IDLE) && checkPlaybackParams()) {
+            //打开页面后直接从请求的时间开始回放
+            mAutoPlay = false;
+            startPlayback(surface);
+        } else if (mState.is(PlayerStatus.STOPPING)) {
+            //恢复处于暂停播放状态的窗口
+            startPlayback(surface);
+        }
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surface, int width, int height) {
+
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(SurfaceTexture surface) {
+        if (mState.transitionFrom(PlayerStateMachine.ACTIVE, PlayerStatus.STOPPING)) {//暂停播放，再次进入时恢复播放
+            PlayerRegistry.unregister(mPlayer);
+            resetExecuteState();
+            PlayerTaskExecutor.getInstance().stopPlay(mPlayer);
+        }
+        return false;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture surface) {
+
+    }
+}
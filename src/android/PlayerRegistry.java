@@ -0,0 +1,95 @@
+package cn.cordova.hikvision.sdk;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 正在播放的播放器，key 为播放器
+ * <p>
+ * 预览页面、多画面窗口和回放页面在播放成功时登记，停止播放时移除，供抓图等 JS 接口按监控点地址找到播放器。
+ * 同一个监控点可以同时在多个窗口中播放，每个窗口的播放器单独登记，移除一个窗口不影响其他窗口。
+ */
+public class PlayerRegistry {
+    private static final Map<HikVideoPlayer, Entry> sPlayers = new ConcurrentHashMap<>();
+
+    /**
+     * 登记的监控点，url 为主码流地址，subUrl 为子码流地址
+     */
+    private static final class Entry {
+        final String url;
+        @Nullable
+        final String subUrl;
+
+        Entry(String url, @Nullable String subUrl) {
+            this.url = url;
+            this.subUrl = subUrl;
+        }
+
+        boolean matches(String address) {
+            return address.equals(url) || address.equals(subUrl);
+        }
+    }
+
+    private PlayerRegistry() {
+    }
+
+    /**
+     * 登记播放器，播放子码流时也按主码流地址登记，两个地址都可以找到该播放器
+     *
+     * @param url    监控点地址（主码流地址）
+     * @param subUrl 子码流地址，没有时为 null
+     */
+    public static void register(@NonNull HikVideoPlayer player, @NonNull String url, @Nullable String subUrl) {
+        sPlayers.put(player, new Entry(url, subUrl));
+    }
+
+    public static void unregister(@Nullable HikVideoPlayer player) {
+        if (player != null) {
+            sPlayers.remove(player);
+        }
+    }
+
+    /**
+     * 按监控点地址查找播放器，有多个窗口在播放时返回其中一个
+     */
+    @Nullable
+    public static HikVideoPlayer get(@Nullable String url) {
+        if (url == null) {
+            return null;
+        }
+        for (Map.Entry<HikVideoPlayer, Entry> entry : sPlayers.entrySet()) {
+            if (entry.getValue().matches(url)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 播放器是否仍然登记在该监控点下
+     */
+    public static boolean isRegistered(@NonNull HikVideoPlayer player, @NonNull String url) {
+        Entry entry = sPlayers.get(player);
+        return entry != null && entry.matches(url);
+    }
+
+    /**
+     * 所有正在播放的监控点地址，同一个监控点只返回一次
+     */
+    public static List<String> getUrls() {
+        Set<String> urls = new LinkedHashSet<>();
+        for (Entry entry : sPlayers.values()) {
+            urls.add(entry.url);
+        }
+        return new ArrayList<>(urls);
+    }
+}
@@ -0,0 +1,158 @@
+package cn.cordova.hikvision.sdk;
+
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import com.hikvision.open.hikvideoplayer.HikVideoPlayerCallback;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 播放窗口的状态机
+ * <p>
+ * 状态保存在 AtomicReference 中，按转换表通过 compareAndSet 切换，不在表中的转换会被拒绝，
+ * 例如加载中再次开流、停止后迟到的播放结果。判断后再切换的地方使用 transition / transitionFrom，判断和切换是一次原子操作。
+ * 每个播放窗口一个实例，之间没有共享的锁；状态变化后在切换状态的线程中通知监听。
+ */
+public class PlayerStateMachine {
+    private static final String TAG = "PlayerStateMachine";
+
+    /**
+     * 加载中或播放中
+     */
+    public static final Set<PlayerStatus> ACTIVE = Collections.unmodifiableSet(EnumSet.of(PlayerStatus.LOADING, PlayerStatus.SUCCESS));
+    /**
+     * 播放失败或取流异常
+     */
+    public static final Set<PlayerStatus> FAILURE = Collections.unmodifiableSet(EnumSet.of(PlayerStatus.FAILED, PlayerStatus.EXCEPTION));
+
+    private static final Map<PlayerStatus, EnumSet<PlayerStatus>> TRANSITIONS = new EnumMap<>(PlayerStatus.class);
+
+    static {
+        //STOPPING：等待画面准备好，或进入后台暂停，回到页面时重新开流；播放结果只能在加载中或播放中到达
+        TRANSITIONS.put(PlayerStatus.IDLE, EnumSet.of(PlayerStatus.LOADING, PlayerStatus.STOPPING));
+        TRANSITIONS.put(PlayerStatus.LOADING, EnumSet.of(PlayerStatus.SUCCESS, PlayerStatus.FAILED, PlayerStatus.EXCEPTION,
+                PlayerStatus.FINISH, PlayerStatus.STOPPING, PlayerStatus.IDLE));
+        //切换码流成功后会再次回调 SUCCESS
+        TRANSITIONS.put(PlayerStatus.SUCCESS, EnumSet.of(PlayerStatus.SUCCESS, PlayerStatus.FAILED, PlayerStatus.EXCEPTION,
+                PlayerStatus.FINISH, PlayerStatus.STOPPING, PlayerStatus.IDLE));
+        TRANSITIONS.put(PlayerStatus.STOPPING, EnumSet.of(PlayerStatus.LOADING, PlayerStatus.IDLE));
+        TRANSITIONS.put(PlayerStatus.FAILED, EnumSet.of(PlayerStatus.LOADING, PlayerStatus.STOPPING, PlayerStatus.IDLE));
+        TRANSITIONS.put(PlayerStatus.EXCEPTION, EnumSet.of(PlayerStatus.LOADING, PlayerStatus.STOPPING, PlayerStatus.IDLE));
+        TRANSITIONS.put(PlayerStatus.FINISH, EnumSet.of(PlayerStatus.LOADING, PlayerStatus.STOPPING, PlayerStatus.IDLE));
+    }
+
+    private final AtomicReference<PlayerStatus> mStatus = new AtomicReference<>(PlayerStatus.IDLE);
+    private final CopyOnWriteArrayList<OnStatusChangeListener> mListeners = new CopyOnWriteArrayList<>();
+
+    public interface OnStatusChangeListener {
+        /**
+         * 状态已经切换，在切换状态的线程中回调
+         */
+        void onStatusChange(PlayerStatus from, PlayerStatus to);
+    }
+
+    /**
+     * 转换表中是否允许该转换
+     */
+    public static boolean canTransition(@NonNull PlayerStatus from, @NonNull PlayerStatus to) {
+        return TRANSITIONS.get(from).contains(to);
+    }
+
+    /**
+     * 播放结果回调对应的状态
+     */
+    @NonNull
+    public static PlayerStatus of(@NonNull HikVideoPlayerCallback.Status status) {
+        switch (status) {
+            case SUCCESS:
+                return PlayerStatus.SUCCESS;
+            case FAILED:
+                return PlayerStatus.FAILED;
+            case EXCEPTION:
+                return PlayerStatus.EXCEPTION;
+            default:
+                return PlayerStatus.FINISH;
+        }
+    }
+
+    @NonNull
+    public PlayerStatus get() {
+        return mStatus.get();
+    }
+
+    public boolean is(@NonNull PlayerStatus status) {
+        return mStatus.get() == status;
+    }
+
+    public boolean isOneOf(@NonNull PlayerStatus first, @NonNull PlayerStatus second) {
+        PlayerStatus status = mStatus.get();
+        return status == first || status == second;
+    }
+
+    /**
+     * 从当前状态切换到 to
+     *
+     * @return 转换表不允许时返回 false，状态不变
+     */
+    public boolean moveTo(@NonNull PlayerStatus to) {
+        while (true) {
+            PlayerStatus from = mStatus.get();
+            if (!canTransition(from, to)) {
+                Log.d(TAG, "moveTo: reject " + from + " -> " + to);
+                return false;
+            }
+            if (mStatus.compareAndSet(from, to)) {
+                notifyListeners(from, to);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 只有当前状态为 from 时才切换到 to
+     */
+    public boolean transition(@NonNull PlayerStatus from, @NonNull PlayerStatus to) {
+        if (!canTransition(from, to) || !mStatus.compareAndSet(from, to)) {
+            return false;
+        }
+        notifyListeners(from, to);
+        return true;
+    }
+
+    /**
+     * 只有当前状态在 from 中时才切换到 to
+     */
+    public boolean transitionFrom(@NonNull Set<PlayerStatus> from, @NonNull PlayerStatus to) {
+        while (true) {
+            PlayerStatus current = mStatus.get();
+            if (!from.contains(current) || !canTransition(current, to)) {
+                return false;
+            }
+            if (mStatus.compareAndSet(current, to)) {
+                notifyListeners(current, to);
+                return true;
+            }
+        }
+    }
+
+    public void addListener(@NonNull OnStatusChangeListener listener) {
+        mListeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(@NonNull OnStatusChangeListener listener) {
+        mListeners.remove(listener);
+    }
+
+    private void notifyListeners(PlayerStatus from, PlayerStatus to) {
+        for (OnStatusChangeListener listener : mListeners) {
+            listener.onStatusChange(from, to);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package cn.cordova.hikvision.sdk;
+
+import android.os.Process;
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+import com.hikvision.open.hikvideoplayer.HikVideoPlayerCallback;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 执行 SDK 阻塞调用（startRealPlay、stopPlay、changeStream、startPlayback 等）的共享线程池
+ * <p>
+ * 同一个播放器的任务按提交顺序串行执行，不同播放器之间并行执行；开流有超时时间，超时回调 FAILED；
+ * 新的开流或停止会取消还未执行的开流，被取代的开流结果不再回调。
+ */
+public class PlayerTaskExecutor {
+    private static final String TAG = "PlayerTaskExecutor";
+
+    /**
+     * 开流超时的错误码
+     */
+    public static final int ERROR_CONNECT_TIMEOUT = 0x10000001;
+    /**
+     * 默认开流超时时间
+     */
+    private static final long DEFAULT_CONNECT_TIMEOUT_MS = 15 * 1000;
+    /**
+     * 最大线程数，与播放器数量上限一致
+     */
+    private static final int MAX_THREADS = 16;
+
+    private static final PlayerTaskExecutor sInstance = new PlayerTaskExecutor();
+
+    private final ThreadPoolExecutor mExecutor;
+    private final ScheduledExecutorService mTimer;
+    /**
+     * 每个播放器对应一个串行队列
+     */
+    private final Map<HikVideoPlayer, Lane> mLanes = new ConcurrentHashMap<>();
+    private volatile long mConnectTimeoutMs = DEFAULT_CONNECT_TIMEOUT_MS;
+
+    /**
+     * 开流任务
+     */
+    public interface StartTask {
+        /**
+         * 执行阻塞的开流调用
+         *
+         * @param callback 需要传给 SDK 的回调
+         * @return SDK 开流方法的返回值，false 代表播放失败
+         */
+        @WorkerThread
+        boolean start(HikVideoPlayerCallback callback);
+    }
+
+    private PlayerTaskExecutor() {
+        mExecutor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new PlayerThreadFactory());
+        mExecutor.allowCoreThreadTimeOut(true);
+        mTimer = Executors.newSingleThreadScheduledExecutor(new PlayerThreadFactory());
+    }
+
+    public static PlayerTaskExecutor getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * 设置开流超时时间
+     */
+    public void setConnectTimeout(long timeoutMs) {
+        mConnectTimeoutMs = timeoutMs > 0 ? timeoutMs : DEFAULT_CONNECT_TIMEOUT_MS;
+    }
+
+    /**
+     * 在播放器的串行队列中执行任务
+     */
+    public void execute(@NonNull HikVideoPlayer player, @NonNull Runnable task) {
+        lane(player).execute(task);
+    }
+
+    /**
+     * 开始播放，取消该播放器还未执行的开流；如果上一次开流已经建立了会话，会先停止
+     *
+     * @param player   播放器
+     * @param task     开流任务
+     * @param callback 播放结果回调，超时时回调 FAILED 和 {@link #ERROR_CONNECT_TIMEOUT}
+     */
+    public void startPlay(@NonNull final HikVideoPlayer player, @NonNull final StartTask task,
+                          @NonNull HikVideoPlayerCallback callback) {
+        final Lane lane = lane(player);
+        final int generation = lane.mGeneration.incrementAndGet();
+        final StartCallback startCallback = new StartCallback(player, lane, generation, callback);
+        lane.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!lane.isCurrent(generation)) {
+                    Log.d(TAG, "startPlay: superseded, skip");
+                    return;
+                }
+                if (lane.mSessionOpen) {
+                    player.stopPlay();
+                    lane.mSessionOpen = false;
+                }
+                startCallback.scheduleTimeout(mConnectTimeoutMs);
+                lane.mSessionOpen = true;
+                if (!task.start(startCallback)) {
+                    lane.mSessionOpen = false;
+                    startCallback.onPlayerStatus(HikVideoPlayerCallback.Status.FAILED, player.getLastError());
+                }
+            }
+        });
+    }
+
+    /**
+     * 在当前会话中切换码流，不取代当前的开流；提交后停止或重新开流时不再执行，切换结果也不再回调
+     *
+     * @param task     调用 changeStream 的任务
+     * @param callback 切换结果回调
+     */
+    public void changeStream(@NonNull final HikVideoPlayer player, @NonNull final StartTask task,
+                             @NonNull HikVideoPlayerCallback callback) {
+        final Lane lane = lane(player);
+        final int generation = lane.mGeneration.get();
+        final StartCallback changeCallback = new StartCallback(player, lane, generation, callback);
+        lane.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!lane.isCurrent(generation) || !lane.mSessionOpen) {
+                    Log.d(TAG, "changeStream: session closed, skip");
+                    return;
+                }
+                if (!task.start(changeCallback)) {
+                    Log.e(TAG, "changeStream failed: " + Integer.toHexString(player.getLastError()));
+                }
+            }
+        });
+    }
+
+    /**
+     * 停止播放，同时取消该播放器还未执行的开流，已发出的开流结果不再回调
+     */
+    public void stopPlay(@NonNull final HikVideoPlayer player) {
+        final Lane lane = lane(player);
+        lane.mGeneration.incrementAndGet();
+        lane.execute(new Runnable() {
+            @Override
+            public void run() {
+                player.stopPlay();
+                lane.mSessionOpen = false;
+            }
+        });
+    }
+
+    /**
+     * 播放器归还到播放器池前调用，在串行队列中执行完 task 后移除该播放器的队列
+     */
+    public void release(@NonNull final HikVideoPlayer player, @NonNull final Runnable task) {
+        final Lane lane = lane(player);
+        lane.mGeneration.incrementAndGet();
+        lane.execute(new Runnable() {
+            @Override
+            public void run() {
+                lane.mSessionOpen = false;
+                mLanes.remove(player);
+                task.run();
+            }
+        });
+    }
+
+    /**
+     * 当前会话的编号，每次开流、停止和归还都会改变
+     */
+    public int getGeneration(@NonNull HikVideoPlayer player) {
+        return lane(player).mGeneration.get();
+    }
+
+    /**
+     * 会话是否仍然是 generation 对应的那一次，用来判断播放器是否已经停止或归还
+     */
+    public boolean isCurrent(@NonNull HikVideoPlayer player, int generation) {
+        Lane lane = mLanes.get(player);
+        return lane != null && lane.isCurrent(generation);
+    }
+
+    private Lane lane(HikVideoPlayer player) {
+        Lane lane = mLanes.get(player);
+        if (lane == null) {
+            Lane newLane = new Lane();
+            lane = mLanes.putIfAbsent(player, newLane);
+            if (lane == null) {
+                lane = newLane;
+            }
+        }
+        return lane;
+    }
+
+    /**
+     * 单个播放器的串行队列
+     */
+    private final class Lane implements Executor {
+        private final ArrayDeque<Runnable> mTasks = new ArrayDeque<>();
+        /**
+         * 每次开流或停止都会加一，用来判断开流是否已被取代
+         */
+        private final AtomicInteger mGeneration = new AtomicInteger();
+        private Runnable mActive;
+        /**
+         * 是否有开流成功后未停止的会话，只在队列线程中读写
+         */
+        private volatile boolean mSessionOpen = false;
+
+        @Override
+        public synchronized void execute(@NonNull final Runnable task) {
+            mTasks.offer(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } catch (Exception e) {
+                        Log.e(TAG, "execute: " + e.toString());
+                    } finally {
+                        scheduleNext();
+                    }
+                }
+            });
+            if (mActive == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            mActive = mTasks.poll();
+            if (mActive != null) {
+                mExecutor.execute(mActive);
+            }
+        }
+
+        boolean isCurrent(int generation) {
+            return mGeneration.get() == generation;
+        }
+    }
+
+    /**
+     * 包装 SDK 回调：开流超时回调 FAILED，被取代或超时后的结果不再回调给上层
+     */
+    private final class StartCallback implements HikVideoPlayerCallback {
+        private final HikVideoPlayer mPlayer;
+        private final Lane mLane;
+        private final int mGeneration;
+        private final HikVideoPlayerCallback mCallback;
+        private final AtomicInteger mState = new AtomicInteger(STATE_CONNECTING);
+        private volatile ScheduledFuture<?> mTimeoutFuture;
+
+        private static final int STATE_CONNECTING = 0;
+        private static final int STATE_CONNECTED = 1;
+        private static final int STATE_TIMEOUT = 2;
+
+        StartCallback(HikVideoPlayer player, Lane lane, int generation, HikVideoPlayerCallback callback) {
+            mPlayer = player;
+            mLane = lane;
+            mGeneration = generation;
+            mCallback = callback;
+        }
+
+        void scheduleTimeout(long timeoutMs) {
+            mTimeoutFuture = mTimer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    onTimeout();
+                }
+            }, timeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        private void onTimeout() {
+            if (!mState.compareAndSet(STATE_CONNECTING, STATE_TIMEOUT) || !mLane.isCurrent(mGeneration)) {
+                return;
+            }
+            Log.w(TAG, "onTimeout: connect timeout");
+            mCallback.onPlayerStatus(Status.FAILED, ERROR_CONNECT_TIMEOUT);
+            //阻塞的开流返回后关闭会话，如果已经有新的开流，由新的开流负责关闭
+            mLane.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (mLane.isCurrent(mGeneration) && mLane.mSessionOpen) {
+                        mPlayer.stopPlay();
+                        mLane.mSessionOpen = false;
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void onPlayerStatus(@NonNull Status status, int errorCode) {
+            mState.compareAndSet(STATE_CONNECTING, STATE_CONNECTED);
+            ScheduledFuture<?> timeoutFuture = mTimeoutFuture;
+            if (timeoutFuture != null) {
+                timeoutFuture.cancel(false);
+            }
+            if (mState.get() == STATE_TIMEOUT || !mLane.isCurrent(mGeneration)) {
+                return;
+            }
+            mCallback.onPlayerStatus(status, errorCode);
+        }
+    }
+
+    /**
+     * 降低线程优先级，避免开流和解码初始化抢占UI线程
+     */
+    private static final class PlayerThreadFactory implements ThreadFactory {
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull final Runnable r) {
+            return new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }
+            }, "hik-player-" + mCount.incrementAndGet());
+        }
+    }
+}
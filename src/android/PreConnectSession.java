@@ -0,0 +1,150 @@
+package cn.cordova.hikvision.sdk;
+
+import android.graphics.SurfaceTexture;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import android.util.Log;
+
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+import com.hikvision.open.hikvideoplayer.HikVideoPlayerCallback;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 页面启动前预先开流
+ * <p>
+ * 插件收到 showHikVideoPage 调用后立即从播放器池取出播放器并在子线程中开流，与页面创建、布局和 surface 准备并行；
+ * surface 可用后通过 setVideoWindow 绑定画面。页面接管之前的播放结果会被保存，接管时补发最后一次的状态。
+ * 页面在超时时间内没有接管时停止取流并归还播放器。
+ */
+public class PreConnectSession implements HikVideoPlayerCallback {
+    private static final String TAG = "PreConnectSession";
+
+    /**
+     * 页面接管的超时时间
+     */
+    private static final long TAKE_TIMEOUT_MS = 15 * 1000;
+
+    private static final Map<String, PreConnectSession> sSessions = new ConcurrentHashMap<>();
+    private static final AtomicInteger sNextId = new AtomicInteger();
+    private static final Handler sHandler = new Handler(Looper.getMainLooper());
+
+    private final String mId;
+    private final HikVideoPlayer mPlayer;
+    private HikVideoPlayerCallback mTarget;
+    private Status mLastStatus;
+    private int mLastErrorCode;
+
+    private PreConnectSession(String id, HikVideoPlayer player) {
+        mId = id;
+        mPlayer = player;
+    }
+
+    /**
+     * 开始预先开流
+     *
+     * @param trace 开流耗时统计，可以为空
+     * @return null-播放器数量已达上限
+     */
+    @Nullable
+    public static PreConnectSession start(@NonNull final String url, @Nullable final StartupTrace trace) {
+        final HikVideoPlayer player = HikPlayerPool.getInstance().acquire();
+        if (player == null) {
+            return null;
+        }
+        final PreConnectSession session = new PreConnectSession("session-" + sNextId.incrementAndGet(), player);
+        sSessions.put(session.mId, session);
+        //还没有画面，开流与页面启动并行，surface 可用后再绑定
+        PlayerTaskExecutor.getInstance().startPlay(player, new PlayerTaskExecutor.StartTask() {
+            @Override
+            public boolean start(HikVideoPlayerCallback callback) {
+                if (trace != null) {
+                    trace.mark(StartupTrace.STAGE_START_ISSUED);
+                }
+                return player.startRealPlay(url, callback);
+            }
+        }, session);
+        sHandler.postDelayed(session.mExpireTask, TAKE_TIMEOUT_MS);
+        Log.d(TAG, "start: " + session.mId);
+        return session;
+    }
+
+    /**
+     * 页面接管预先开流的会话，之后播放器由页面负责归还
+     */
+    @Nullable
+    public static PreConnectSession take(@Nullable String id) {
+        PreConnectSession session = id == null ? null : sSessions.remove(id);
+        if (session != null) {
+            sHandler.removeCallbacks(session.mExpireTask);
+        }
+        return session;
+    }
+
+    public String getId() {
+        return mId;
+    }
+
+    public HikVideoPlayer getPlayer() {
+        return mPlayer;
+    }
+
+    /**
+     * surface 可用后绑定画面，并把播放结果转给页面；已经有结果时立即补发
+     */
+    @UiThread
+    public void attach(@NonNull final SurfaceTexture surface, @NonNull HikVideoPlayerCallback callback) {
+        Status lastStatus;
+        int lastErrorCode;
+        synchronized (this) {
+            mTarget = callback;
+            lastStatus = mLastStatus;
+            lastErrorCode = mLastErrorCode;
+        }
+        PlayerTaskExecutor.getInstance().execute(mPlayer, new Runnable() {
+            @Override
+            public void run() {
+                mPlayer.setVideoWindow(surface);
+            }
+        });
+        if (lastStatus != null) {
+            callback.onPlayerStatus(lastStatus, lastErrorCode);
+        }
+    }
+
+    /**
+     * 页面不再接收结果，页面在绑定画面前离开时调用
+     */
+    public synchronized void detach() {
+        mTarget = null;
+    }
+
+    @Override
+    public void onPlayerStatus(@NonNull Status status, int errorCode) {
+        HikVideoPlayerCallback target;
+        synchronized (this) {
+            target = mTarget;
+            if (target == null) {
+                mLastStatus = status;
+                mLastErrorCode = errorCode;
+                return;
+            }
+        }
+        target.onPlayerStatus(status, errorCode);
+    }
+
+    private final Runnable mExpireTask = new Runnable() {
+        @Override
+        public void run() {
+            if (sSessions.remove(mId) != null) {
+                Log.w(TAG, "expire: " + mId + " not taken, release player");
+                HikPlayerPool.getInstance().release(mPlayer);
+            }
+        }
+    };
+}
@@ -0,0 +1,266 @@
+package cn.cordova.hikvision.sdk;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 预录像缓冲
+ * <p>
+ * SDK 没有开放码流数据的回调，无法在内存中缓存原始码流，这里改为播放期间在缓存目录中循环录制几个短片段，
+ * 只保留最近 preRoll 毫秒的片段。开始录像时在播放器的串行队列中停止当前片段，把缓存的片段移到录像目录，
+ * 紧接着开始正式录像，这样录像会包含点击之前的画面。单个监控点的缓存按时长限制，所有监控点的缓存按总字节数限制。
+ */
+public class PreRollBuffer {
+    private static final String TAG = "PreRollBuffer";
+
+    private static final long MIN_CHUNK_MS = 2 * 1000;
+    private static final long MAX_CHUNK_MS = 10 * 1000;
+    private static final long DEFAULT_QUOTA_BYTES = 200L * 1024 * 1024;
+    private static final String CACHE_DIR = "hik_preroll";
+
+    /**
+     * 预录时长，0 代表不预录
+     */
+    private static volatile long sPreRollMs = 0;
+    private static volatile long sQuotaBytes = DEFAULT_QUOTA_BYTES;
+    /**
+     * 所有监控点已缓存片段的总字节数
+     */
+    private static final AtomicLong sTotalBytes = new AtomicLong();
+    private static final ScheduledExecutorService sTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "hik-preroll-timer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final Context mContext;
+    private final String mUrl;
+    private final HikVideoPlayer mPlayer;
+    private final File mDirectory;
+    private final long mChunkMs;
+    private final int mMaxChunks;
+    /**
+     * 以下字段只在播放器的串行队列中读写
+     */
+    private final ArrayDeque<Chunk> mChunks = new ArrayDeque<>();
+    private Chunk mCurrent;
+    private boolean mRunning = false;
+    private volatile ScheduledFuture<?> mRotateFuture;
+
+    private static final class Chunk {
+        final File file;
+        final long startTime;
+        long endTime;
+        long size;
+
+        Chunk(File file, long startTime) {
+            this.file = file;
+            this.startTime = startTime;
+        }
+    }
+
+    /**
+     * 设置预录，参数格式：{ 'preRoll': number, 'preRollQuota': number }，preRoll 单位毫秒，preRollQuota 为所有监控点缓存的字节数上限
+     */
+    public static void configure(@Nullable JSONObject options) {
+        if (options == null) {
+            return;
+        }
+        sPreRollMs = Math.max(0, options.optLong("preRoll", 0));
+        sQuotaBytes = options.optLong("preRollQuota", DEFAULT_QUOTA_BYTES);
+    }
+
+    /**
+     * 是否开启了预录
+     */
+    public static boolean isEnabled() {
+        return sPreRollMs > 0;
+    }
+
+    public PreRollBuffer(@NonNull Context context, @NonNull String url, @NonNull HikVideoPlayer player) {
+        mContext = context.getApplicationContext();
+        mUrl = url;
+        mPlayer = player;
+        File root = mContext.getExternalCacheDir();
+        mDirectory = new File(root != null ? root : mContext.getCacheDir(), CACHE_DIR + File.separator + MyUtils.md5(url));
+        long preRollMs = Math.max(MIN_CHUNK_MS, sPreRollMs);
+        mChunkMs = Math.max(MIN_CHUNK_MS, Math.min(MAX_CHUNK_MS, preRollMs / 2));
+        //当前片段之外保留的片段数，保证至少覆盖 preRoll 时长
+        mMaxChunks = (int) ((preRollMs + mChunkMs - 1) / mChunkMs);
+    }
+
+    /**
+     * 播放成功后开始预录
+     */
+    public void start() {
+        PlayerTaskExecutor.getInstance().execute(mPlayer, new Runnable() {
+            @Override
+            public void run() {
+                if (mRunning) {
+                    return;
+                }
+                while (!mChunks.isEmpty()) {
+                    deleteChunk(mChunks.pollFirst());
+                }
+                clearDirectory();
+                mRunning = true;
+                if (startChunk()) {
+                    mRotateFuture = sTimer.scheduleAtFixedRate(mRotateTask, mChunkMs, mChunkMs, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+    }
+
+    /**
+     * 停止预录并丢弃缓存的片段
+     */
+    public void stop() {
+        PlayerTaskExecutor.getInstance().execute(mPlayer, new Runnable() {
+            @Override
+            public void run() {
+                cancelRotation();
+                if (mRunning) {
+                    mRunning = false;
+                    finishChunk();
+                }
+                while (!mChunks.isEmpty()) {
+                    deleteChunk(mChunks.pollFirst());
+                }
+            }
+        });
+    }
+
+    /**
+     * 停止预录，把缓存的片段按时间顺序移到录像目录并写入 {@link MediaIndex}，之后由调用方立即开始正式录像。
+     * 必须在该播放器的串行队列中调用。
+     */
+    @WorkerThread
+    public void handOff(@NonNull File targetDir) {
+        cancelRotation();
+        if (mRunning) {
+            mRunning = false;
+            finishChunk();
+        }
+        if (!targetDir.exists() && !targetDir.mkdirs()) {
+            Log.e(TAG, "handOff: mkdirs failed " + targetDir);
+        }
+        MediaIndex index = MediaIndex.getInstance(mContext);
+        while (!mChunks.isEmpty()) {
+            Chunk chunk = mChunks.pollFirst();
+            sTotalBytes.addAndGet(-chunk.size);
+            File target = new File(targetDir, chunk.file.getName());
+            if (chunk.file.renameTo(target)) {
+                index.add(mUrl, MediaIndex.TYPE_RECORD, target.getAbsolutePath(), chunk.startTime, chunk.endTime, null);
+            } else {
+                Log.e(TAG, "handOff: move failed " + chunk.file);
+                chunk.file.delete();
+            }
+        }
+    }
+
+    private final Runnable mRotateTask = new Runnable() {
+        @Override
+        public void run() {
+            PlayerTaskExecutor.getInstance().execute(mPlayer, new Runnable() {
+                @Override
+                public void run() {
+                    if (!mRunning) {
+                        return;
+                    }
+                    finishChunk();
+                    if (!startChunk()) {
+                        cancelRotation();
+                    }
+                    trim();
+                }
+            });
+        }
+    };
+
+    private void cancelRotation() {
+        ScheduledFuture<?> future = mRotateFuture;
+        mRotateFuture = null;
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * 开始新的片段，失败时（例如已经停止播放）停止预录
+     */
+    private boolean startChunk() {
+        if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+            Log.e(TAG, "startChunk: mkdirs failed " + mDirectory);
+        }
+        File file = new File(mDirectory, MyUtils.getFileName("") + ".mp4");
+        if (mPlayer.startRecord(file.getAbsolutePath())) {
+            mCurrent = new Chunk(file, System.currentTimeMillis());
+            return true;
+        }
+        mRunning = false;
+        Log.e(TAG, "startChunk failed: " + Integer.toHexString(mPlayer.getLastError()));
+        return false;
+    }
+
+    private void finishChunk() {
+        Chunk chunk = mCurrent;
+        mCurrent = null;
+        if (chunk == null) {
+            return;
+        }
+        mPlayer.stopRecord();
+        chunk.endTime = System.currentTimeMillis();
+        chunk.size = chunk.file.length();
+        sTotalBytes.addAndGet(chunk.size);
+        mChunks.addLast(chunk);
+    }
+
+    /**
+     * 超过时长或总字节数上限时删除最早的片段，总字节数超限时每个监控点在轮换时各自删除，至少保留最近一个片段
+     */
+    private void trim() {
+        while (mChunks.size() > mMaxChunks) {
+            deleteChunk(mChunks.pollFirst());
+        }
+        long quota = sQuotaBytes;
+        while (quota > 0 && sTotalBytes.get() > quota && mChunks.size() > 1) {
+            deleteChunk(mChunks.pollFirst());
+        }
+    }
+
+    private void deleteChunk(Chunk chunk) {
+        sTotalBytes.addAndGet(-chunk.size);
+        chunk.file.delete();
+    }
+
+    /**
+     * 删除上次异常退出时残留的片段
+     */
+    private void clearDirectory() {
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -33,10 +33,13 @@ import cn.cordova.hikvision.sdk.widget.PlayWindowContainer;
 import com.hikvision.open.hikvideoplayer.CustomRect;
 import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
 import com.hikvision.open.hikvideoplayer.HikVideoPlayerCallback;
-import com.hikvision.open.hikvideoplayer.HikVideoPlayerFactory;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
 
 import java.text.DecimalFormat;
 import java.text.MessageFormat;
+import java.util.Collections;
 
 /**
  * 错误码开头：17是mgc或媒体取流SDK的错误，18是vod，19是dac
@@ -73,10 +76,55 @@ public class PreviewActivity extends AppCompatActivity implements View.OnClickLi
     private String mUri;
     private String mTitle;
     private HikVideoPlayer mPlayer;
+    /**
+     * 主/子码流自适应切换，没有传入子码流地址时始终使用主码流
+     */
+    private AdaptiveStreamController mStreamController;
+    /**
+     * 取流异常后自动重连
+     */
+    private StreamReconnector mReconnector;
+    /**
+     * 帧率和卡顿检测，画面冻结时按取流异常重连
+     */
+    private FrameMonitor mFrameMonitor;
+    /**
+     * 进入后台后保持取流一段时间，宽限期内回到页面不需要重新开流
+     */
+    private BackgroundGrace mBackgroundGrace;
+    /**
+     * 插件预先开流的会话，surface 可用后绑定画面，绑定后置空
+     */
+    private PreConnectSession mPreConnect;
+    /**
+     * surface 可用后自动开始播放，不需要点击开始按钮
+     */
+    private boolean mAutoPlay = false;
+    /**
+     * 开流各阶段耗时统计，第一帧画面显示后置空
+     */
+    private volatile StartupTrace mStartupTrace;
     private boolean mSoundOpen = false;
     private boolean mRecording = false;
+    /**
+     * 分段录像，init 时设置了 recording.segmentDuration 才使用
+     */
+    private SegmentRecorder mSegmentRecorder;
+    /**
+     * 预录缓冲，init 时设置了 recording.preRoll 才使用
+     */
+    private PreRollBuffer mPreRoll;
+    /**
+     * 单文件录像的路径
+     */
+    private String mRecordPath;
+    private long mRecordStartTime;
     private boolean mDigitalZooming = false;
-    private PlayerStatus mPlayerStatus = PlayerStatus.IDLE;//默认闲置
+    /**
+     * 在播放器队列中执行电子放大，避免在主线程中调用 native 方法
+     */
+    private DigitalZoomDispatcher mZoomDispatcher;
+    private final PlayerStateMachine mState = new PlayerStateMachine();//默认闲置
     /**
      * 电子放大倍数格式化,显示小数点后一位
      */
@@ -86,10 +134,76 @@ public class PreviewActivity extends AppCompatActivity implements View.OnClickLi
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         getWindow().setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_STATE_ALWAYS_HIDDEN);//防止键盘弹出
+        mStartupTrace = StartupTrace.get(getIntent().getStringExtra("hikTraceId"));
+        if (mStartupTrace != null) {
+            mStartupTrace.mark(StartupTrace.STAGE_ACTIVITY_CREATED);
+        }
         super.setContentView(R.layout.activity_preview);
         initView();
         initPlayWindowContainer();
-        mPlayer = HikVideoPlayerFactory.provideHikVideoPlayer();
+        mAutoPlay = getIntent().getBooleanExtra("hikAutoPlay", false);
+        mPreConnect = PreConnectSession.take(getIntent().getStringExtra("hikSessionId"));
+        mPlayer = mPreConnect != null ? mPreConnect.getPlayer() : HikPlayerPool.getInstance().acquire();
+        if (mPlayer == null) {
+            ToastUtils.showShort("播放窗口数量已达上限");
+            finish();
+            return;
+        }
+        mStreamController = new AdaptiveStreamController(this, mPlayer, mUri, getIntent().getStringExtra("hikSubUrl"), this);
+        mState.addListener(new PlayerStateMachine.OnStatusChangeListener() {
+            @Override
+            public void onStatusChange(PlayerStatus from, PlayerStatus to) {
+                EventChannel.getInstance().post(EventChannel.EVENT_STATE, mUri, "from", from.name(), "to", to.name());
+            }
+        });
+        mReconnector = new StreamReconnector(String.valueOf(mUri), new Runnable() {
+            @Override
+            public void run() {
+                //重连时页面可能已经停止播放或进入后台
+                if (mState.isOneOf(PlayerStatus.EXCEPTION, PlayerStatus.FAILED) && textureView.isAvailable()) {
+                    startRealPlay(textureView.getSurfaceTexture());
+                }
+            }
+        });
+        mBackgroundGrace = new BackgroundGrace(new Runnable() {
+            @Override
+            public void run() {
+                //宽限期结束仍在后台，停止取流，回到页面时重新开流
+                if (mState.transition(PlayerStatus.SUCCESS, PlayerStatus.STOPPING)) {
+                    PlayerRegistry.unregister(mPlayer);
+                    stopPreRoll();
+                    PlayerTaskExecutor.getInstance().stopPlay(mPlayer);
+                    Log.d(TAG, "onGraceExpired: stopPlay");
+                }
+            }
+        });
+        mFrameMonitor = new FrameMonitor(String.valueOf(mUri), new FrameMonitor.OnStallListener() {
+            @Override
+            public void onStall(long frozenMs) {
+                Log.w(TAG, "onStall: " + frozenMs + "ms");
+                mStreamController.onStall();
+            }
+
+            @Override
+            public void onRecover(long frozenMs) {
+                Log.i(TAG, "onRecover: " + frozenMs + "ms");
+            }
+
+            @Override
+            public void onFrozen(long frozenMs) {
+                //播放状态仍然是成功但画面已经冻结，按取流异常处理
+                if (mState.is(PlayerStatus.SUCCESS)) {
+                    onPlayerStatus(Status.EXCEPTION, FrameMonitor.ERROR_STREAM_FROZEN);
+                }
+            }
+        });
+        if (mPreConnect != null) {
+            //已经在开流，等待 surface 可用后绑定画面
+            mState.moveTo(PlayerStatus.LOADING);
+            progressBar.setVisibility(View.VISIBLE);
+            playHintText.setVisibility(View.GONE);
+            return;
+        }
         //设置默认值
         mPlayer.setHardDecodePlay(decodeSwitch.isChecked());
         mPlayer.setSmartDetect(smartSwitch.isChecked());
@@ -123,7 +237,7 @@ public class PreviewActivity extends AppCompatActivity implements View.OnClickLi
         decodeSwitch.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
             @Override
             public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
-                if (mPlayerStatus == PlayerStatus.LOADING || mPlayerStatus == PlayerStatus.SUCCESS){
+                if (mState.isOneOf(PlayerStatus.LOADING, PlayerStatus.SUCCESS)){
                     //播放加载过程中和正在播放时，不可以点击
                     ToastUtils.showShort("此设置必须要在播放前设置");
                     decodeSwitch.setChecked(!isChecked);
@@ -137,7 +251,7 @@ public class PreviewActivity extends AppCompatActivity implements View.OnClickLi
         smartSwitch.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
             @Override
             public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
-                if (mPlayerStatus == PlayerStatus.LOADING || mPlayerStatus == PlayerStatus.SUCCESS){
+                if (mState.isOneOf(PlayerStatus.LOADING, PlayerStatus.SUCCESS)){
                     //播放加载过程中和正在播放时，不可以点击
                     ToastUtils.showShort("此设置必须要在播放前设置");
                     smartSwitch.setChecked(!isChecked);
@@ -169,23 +283,34 @@ public class PreviewActivity extends AppCompatActivity implements View.OnClickLi
                 executeDigitalZoom();
             }
         });
+        if ("transform".equals(getIntent().getStringExtra("hikZoomEngine"))) {
+            //画面变换实现电子放大，手势过程中不调用播放器
+            frameLayout.setZoomEngine(PlayWindowContainer.ZOOM_ENGINE_TRANSFORM, textureView);
+        }
     }
 
     @Override
     public void onClick(View view) {
         if (view.getId() == R.id.start) {
-            if (mPlayerStatus != PlayerStatus.SUCCESS && getPreviewUri()) {
+            if (!mState.is(PlayerStatus.SUCCESS) && getPreviewUri()) {
                 startRealPlay(textureView.getSurfaceTexture());
             }
         } else if (view.getId() == R.id.stop) {
-            if (mPlayerStatus == PlayerStatus.SUCCESS) {
-                mPlayerStatus = PlayerStatus.IDLE;//释放这个窗口
+            if (mState.transition(PlayerStatus.SUCCESS, PlayerStatus.IDLE)) {//释放这个窗口
+                //保存最后一帧画面，作为该监控点的缩略图
+                ThumbnailCache.getInstance(this).saveFrame(mUri, textureView, mPlayer);
+                mStreamController.setPlaying(false);
+                mFrameMonitor.stop();
+                mBackgroundGrace.cancel();
+                mReconnector.cancel();
+                PlayerRegistry.unregister(mPlayer);
                 mRecordFilePathText.setText(null);
                 progressBar.setVisibility(View.GONE);
                 playHintText.setVisibility(View.VISIBLE);
                 playHintText.setText("");
                 resetExecuteState();
-                mPlayer.stopPlay();
+                stopPreRoll();
+                PlayerTaskExecutor.getInstance().stopPlay(mPlayer);
             }
         } else if (view.getId() == R.id.capture_button) {
             executeCaptureEvent();
@@ -302,48 +427,132 @@ public class PreviewActivity extends AppCompatActivity implements View.OnClickLi
      * 执行抓图事件
      */
     private void executeCaptureEvent() {
-        if (mPlayerStatus != PlayerStatus.SUCCESS) {
+        if (!mState.is(PlayerStatus.SUCCESS)) {
             ToastUtils.showShort("没有视频在播放");
+            return;
         }
 
-        //抓图
-        if (mPlayer.capturePicture(MyUtils.getCaptureImagePath(this))) {
-            ToastUtils.showShort("抓图成功");
-        }
+        //抓图，JPEG 编码和写文件在播放器队列中执行，不阻塞主线程
+        CaptureService.getInstance().capture(this, Collections.singletonList(mUri), 1, 0, new CaptureService.OnCaptureListener() {
+            @Override
+            public void onCaptureComplete(JSONArray results) {
+                JSONObject result = results.optJSONObject(0);
+                if (result != null && result.optJSONArray("paths").length() > 0) {
+                    //ToastUtils 会切换到主线程显示
+                    ToastUtils.showShort("抓图成功");
+                }
+            }
+        });
     }
 
     /**
      * 执行录像事件
      */
     private void executeRecordEvent() {
-        if (mPlayerStatus != PlayerStatus.SUCCESS) {
+        if (!mState.is(PlayerStatus.SUCCESS)) {
             ToastUtils.showShort("没有视频在播放");
         }
 
-        if (!mRecording) {
+        if (!mRecording && SegmentRecorder.isEnabled()) {
+            //分段录像，按固定时长轮换文件，写在该监控点的录像目录；开启预录时先写入预录的片段
+            mRecordFilePathText.setText(null);
+            mSegmentRecorder = new SegmentRecorder(this, mUri, mPlayer, new SegmentRecorder.OnSegmentListener() {
+                @Override
+                public void onSegmentComplete(String path) {
+                    EventChannel.getInstance().post(EventChannel.EVENT_RECORDING, mUri, "recording", true, "segment", path);
+                }
+
+                @Override
+                public void onRecordError(int errorCode) {
+                    runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (mRecording && mSegmentRecorder != null) {
+                                executeRecordEvent();
+                            }
+                        }
+                    });
+                }
+            });
+            mSegmentRecorder.start(mPreRoll);
+            ToastUtils.showShort("开始录像");
+            mRecording = true;
+            recordButton.setText(R.string.close_record);
+            String dir = mSegmentRecorder.getDirectory().getAbsolutePath();
+            EventChannel.getInstance().post(EventChannel.EVENT_RECORDING, mUri, "recording", true, "directory", dir);
+            mRecordFilePathText.setText(MessageFormat.format("当前本地录像目录: {0}", dir));
+        } else if (!mRecording) {
             //开始录像
             mRecordFilePathText.setText(null);
             String path = MyUtils.getLocalRecordPath(this);
             if (mPlayer.startRecord(path)) {
                 ToastUtils.showShort("开始录像");
                 mRecording = true;
+                mRecordPath = path;
+                mRecordStartTime = System.currentTimeMillis();
+                StorageJanitor.getInstance().addActivePath(path);
+                captureRecordThumbnail(mPlayer, path);
                 recordButton.setText(R.string.close_record);
+                EventChannel.getInstance().post(EventChannel.EVENT_RECORDING, mUri, "recording", true, "path", path);
                 mRecordFilePathText.setText(MessageFormat.format("当前本地录像路径: {0}", path));
             }
         } else {
             //关闭录像
-            mPlayer.stopRecord();
+            if (mSegmentRecorder != null) {
+                mSegmentRecorder.stop();
+                mSegmentRecorder = null;
+                if (mState.is(PlayerStatus.SUCCESS)) {
+                    //在播放器队列中排在停止录像之后，继续预录
+                    startPreRoll();
+                }
+            } else {
+                mPlayer.stopRecord();
+                StorageJanitor.getInstance().removeActivePath(mRecordPath);
+                MediaIndex.getInstance(this).add(mUri, MediaIndex.TYPE_RECORD, mRecordPath, mRecordStartTime,
+                        System.currentTimeMillis(), MediaIndex.getThumbnailPath(mRecordPath));
+                mRecordPath = null;
+                StorageJanitor.getInstance().trim(this);
+            }
             ToastUtils.showShort("关闭录像");
             mRecording = false;
             recordButton.setText(R.string.start_record);
+            EventChannel.getInstance().post(EventChannel.EVENT_RECORDING, mUri, "recording", false);
+        }
+    }
+
+    private void startPreRoll() {
+        if (!PreRollBuffer.isEnabled()) {
+            return;
+        }
+        if (mPreRoll == null) {
+            mPreRoll = new PreRollBuffer(this, mUri, mPlayer);
+        }
+        mPreRoll.start();
+    }
+
+    private void stopPreRoll() {
+        if (mPreRoll != null) {
+            mPreRoll.stop();
         }
     }
 
+    /**
+     * 录像开始时在播放器队列中抓一张图作为录像的缩略图
+     */
+    private static void captureRecordThumbnail(final HikVideoPlayer player, final String recordPath) {
+        PlayerTaskExecutor.getInstance().execute(player, new Runnable() {
+            @Override
+            public void run() {
+                player.capturePicture(MediaIndex.getThumbnailPath(recordPath));
+            }
+        });
+    }
+
     /**
      * 执行声音开关事件
      */
     private void executeSoundEvent() {
-        if (mPlayerStatus != PlayerStatus.SUCCESS) {
+        if (!mState.is(PlayerStatus.SUCCESS)) {
             ToastUtils.showShort("没有视频在播放");
         }
 
@@ -368,12 +577,15 @@ public class PreviewActivity extends AppCompatActivity implements View.OnClickLi
      * 执行电子放大操作
      */
     private void executeDigitalZoom(){
-        if (mPlayerStatus != PlayerStatus.SUCCESS) {
+        if (!mState.is(PlayerStatus.SUCCESS)) {
             ToastUtils.showShort("没有视频在播放");
         }
         if (decimalFormat == null){
             decimalFormat = new DecimalFormat("0.0");
         }
+        if (mZoomDispatcher == null) {
+            mZoomDispatcher = new DigitalZoomDispatcher(mPlayer);
+        }
         if (!mDigitalZooming){
             frameLayout.setOnScaleChangeListener(new PlayWindowContainer.OnDigitalScaleChangeListener() {
                 @Override
@@ -390,7 +602,7 @@ public class PreviewActivity extends AppCompatActivity implements View.OnClickLi
 
                 @Override
                 public void onDigitalRectChange(CustomRect oRect, CustomRect curRect) {
-                    mPlayer.openDigitalZoom(oRect, curRect);
+                    mZoomDispatcher.open(oRect, curRect);
                 }
             });
             ToastUtils.showShort("电子放大开启");
@@ -402,7 +614,7 @@ public class PreviewActivity extends AppCompatActivity implements View.OnClickLi
             mDigitalZooming = false;
             digitalScaleText.setVisibility(View.GONE);
             frameLayout.setOnScaleChangeListener(null);
-            mPlayer.closeDigitalZoom();
+            mZoomDispatcher.close();
         }
     }
 
@@ -444,23 +656,59 @@ public class PreviewActivity extends AppCompatActivity implements View.OnClickLi
     }
 
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (mReconnector != null) {
+            mReconnector.cancel();
+            mFrameMonitor.stop();
+            mBackgroundGrace.cancel();
+            mStreamController.release();
+        }
+        if (mPreConnect != null) {
+            mPreConnect.detach();
+            mPreConnect = null;
+        }
+        if (mStartupTrace != null) {
+            //没有显示画面就离开页面，返回已经到达的阶段
+            mStartupTrace.complete();
+            mStartupTrace = null;
+        }
+        //停止播放并把播放器归还到播放器池
+        PlayerRegistry.unregister(mPlayer);
+        stopPreRoll();
+        HikPlayerPool.getInstance().release(mPlayer);
+        mPlayer = null;
+    }
+
+
     /**
      * 开始播放
      *
      * @param surface 渲染画面
      */
     private void startRealPlay(SurfaceTexture surface) {
-        mPlayerStatus = PlayerStatus.LOADING;
+        if (!mState.moveTo(PlayerStatus.LOADING)) {
+            //加载中或播放中，忽略重复开流
+            return;
+        }
         progressBar.setVisibility(View.VISIBLE);
         playHintText.setVisibility(View.GONE);
         mPlayer.setSurfaceTexture(surface);
-        //TODO 注意: startRealPlay() 方法会阻塞当前线程，需要在子线程中执行,建议使用RxJava
-        new Thread(() -> {
-            //TODO 注意: 不要通过判断 startRealPlay() 方法返回 true 来确定播放成功，播放成功会通过HikVideoPlayerCallback回调，startRealPlay() 方法返回 false 即代表 播放失败;
-            if (!mPlayer.startRealPlay(mUri, PreviewActivity.this)) {
-                onPlayerStatus(Status.FAILED, mPlayer.getLastError());
+        final HikVideoPlayer player = mPlayer;
+        final String uri = mStreamController.selectUrl();
+        //TODO 注意: startRealPlay() 方法会阻塞当前线程，交给 PlayerTaskExecutor 执行，超时、重复点击和离开页面时会取消
+        //TODO 注意: 不要通过判断 startRealPlay() 方法返回 true 来确定播放成功，播放成功会通过HikVideoPlayerCallback回调，startRealPlay() 方法返回 false 即代表 播放失败;
+        final StartupTrace trace = mStartupTrace;
+        PlayerTaskExecutor.getInstance().startPlay(player, new PlayerTaskExecutor.StartTask() {
+            @Override
+            public boolean start(HikVideoPlayerCallback callback) {
+                if (trace != null) {
+                    trace.mark(StartupTrace.STAGE_START_ISSUED);
+                }
+                return player.startRealPlay(uri, callback);
             }
-        }).start();
+        }, this);
     }
 
 
@@ -473,32 +721,71 @@ public class PreviewActivity extends AppCompatActivity implements View.OnClickLi
     @Override
     @WorkerThread
     public void onPlayerStatus(@NonNull Status status, int errorCode) {
+        StartupTrace trace = mStartupTrace;
+        if (trace != null && status == Status.SUCCESS) {
+            trace.mark(StartupTrace.STAGE_PLAY_SUCCESS);
+        }
         //TODO 注意: 由于 HikVideoPlayerCallback 是在子线程中进行回调的，所以一定要切换到主线程处理UI
         runOnUiThread(new Runnable() {
             @Override
             public void run() {
+                if (!mState.moveTo(PlayerStateMachine.of(status))) {
+                    //停止或重新开流后迟到的回调，转换表不允许，忽略
+                    return;
+                }
+                //只发送状态机接受的结果，迟到的回调不再通知 JS
+                EventChannel.getInstance().postStatus(mUri, status, errorCode);
                 progressBar.setVisibility(View.GONE);
+                if (status == Status.SUCCESS) {
+                    PlayerRegistry.register(mPlayer, mUri, getIntent().getStringExtra("hikSubUrl"));
+                    if (!mRecording) {
+                        startPreRoll();
+                    }
+                } else {
+                    PlayerRegistry.unregister(mPlayer);
+                    stopPreRoll();
+                }
+                if (status != Status.SUCCESS && mBackgroundGrace.isDetached()) {
+                    //后台保持取流期间出现异常，不在后台重连，回到页面时重新开流
+                    mBackgroundGrace.cancel();
+                    mState.moveTo(PlayerStatus.STOPPING);
+                    mStreamController.setPlaying(false);
+                    PlayerTaskExecutor.getInstance().stopPlay(mPlayer);
+                    return;
+                }
                 //只有播放成功时，才允许开启电子放大
                 frameLayout.setAllowOpenDigitalZoom(status == Status.SUCCESS);
+                mStreamController.setPlaying(status == Status.SUCCESS);
+                if (status == Status.SUCCESS) {
+                    mFrameMonitor.start();
+                } else {
+                    mFrameMonitor.stop();
+                }
                 switch (status) {
                     case SUCCESS:
                         //播放成功
-                        mPlayerStatus = PlayerStatus.SUCCESS;
                         playHintText.setVisibility(View.GONE);
                         textureView.setKeepScreenOn(true);//保持亮屏
+                        mReconnector.onSuccess();
                         break;
                     case FAILED:
-                        //播放失败
-                        mPlayerStatus = PlayerStatus.FAILED;
+                        //播放失败，重连中的失败会继续重连
                         playHintText.setVisibility(View.VISIBLE);
-                        playHintText.setText(MessageFormat.format("预览失败，错误码：{0}", Integer.toHexString(errorCode)));
+                        if (mReconnector.isReconnecting() && mReconnector.onError(errorCode)) {
+                            playHintText.setText(MessageFormat.format("正在重连({0})，错误码：{1}", mReconnector.getAttempt(), Integer.toHexString(errorCode)));
+                        } else {
+                            playHintText.setText(MessageFormat.format("预览失败，错误码：{0}", Integer.toHexString(errorCode)));
+                        }
                         break;
                     case EXCEPTION:
                         //取流异常
-                        mPlayerStatus = PlayerStatus.EXCEPTION;
-                        mPlayer.stopPlay();//TODO 注意:异常时关闭取流
+                        PlayerTaskExecutor.getInstance().stopPlay(mPlayer);//TODO 注意:异常时关闭取流
                         playHintText.setVisibility(View.VISIBLE);
-                        playHintText.setText(MessageFormat.format("取流发生异常，错误码：{0}", Integer.toHexString(errorCode)));
+                        if (mReconnector.onError(errorCode)) {
+                            playHintText.setText(MessageFormat.format("正在重连({0})，错误码：{1}", mReconnector.getAttempt(), Integer.toHexString(errorCode)));
+                        } else {
+                            playHintText.setText(MessageFormat.format("取流发生异常，错误码：{0}", Integer.toHexString(errorCode)));
+                        }
                         break;
                 }
             }
@@ -524,7 +811,33 @@ public class PreviewActivity extends AppCompatActivity implements View.OnClickLi
     //TODO 注意:APP前后台切换时 SurfaceTextureListener可能在有某些华为手机上不会回调，例如：华为P20，因此我们需要在Activity生命周期中手动调用回调方法
     @Override
     public void onSurfaceTextureAvailable(SurfaceTexture surface, int width, int height) {
-        if (mPlayerStatus == PlayerStatus.STOPPING) {
+        if (mStartupTrace != null) {
+            mStartupTrace.mark(StartupTrace.STAGE_SURFACE_AVAILABLE);
+        }
+        mStreamController.onViewSizeChanged(width, height);
+        if (mPreConnect != null) {
+            //预先开流的会话绑定画面，已经返回的播放结果会立即补发
+            PreConnectSession session = mPreConnect;
+            mPreConnect = null;
+            session.attach(surface, this);
+            Log.d(TAG, "onSurfaceTextureAvailable: attach pre-connected session");
+            return;
+        }
+        if (mAutoPlay && mState.is(PlayerStatus.IDLE)) {
+            mAutoPlay = false;
+            if (getPreviewUri()) {
+                startRealPlay(surface);
+            }
+            return;
+        }
+        if (mState.is(PlayerStatus.SUCCESS) && mBackgroundGrace.attach(mPlayer, surface)) {
+            //宽限期内回到页面，取流没有断开，重新绑定画面即可
+            mStreamController.setPlaying(true);
+            mFrameMonitor.start();
+            Log.d(TAG, "onSurfaceTextureAvailable: setVideoWindow");
+            return;
+        }
+        if (mState.is(PlayerStatus.STOPPING)) {
             //恢复处于暂停播放状态的窗口
             startRealPlay(textureView.getSurfaceTexture());
             Log.d(TAG, "onSurfaceTextureAvailable: startRealPlay");
@@ -533,14 +846,39 @@ public class PreviewActivity extends AppCompatActivity implements View.OnClickLi
 
     @Override
     public void onSurfaceTextureSizeChanged(SurfaceTexture surface, int width, int height) {
-
+        //横竖屏切换后渲染区域变化，重新选择码流
+        mStreamController.onViewSizeChanged(width, height);
     }
 
     @Override
     public boolean onSurfaceTextureDestroyed(SurfaceTexture surface) {
-        if (mPlayerStatus == PlayerStatus.SUCCESS) {
-            mPlayerStatus = PlayerStatus.STOPPING;//暂停播放，再次进入时恢复播放
-            mPlayer.stopPlay();
+        if (mPreConnect != null) {
+            //还没有绑定画面就离开页面，下面按加载中处理，回到页面时重新开流
+            mPreConnect.detach();
+            mPreConnect = null;
+        }
+        if (mReconnector.isReconnecting()) {
+            mReconnector.cancel();
+            //重连等待中离开页面，回到页面时重新开流
+            mState.transitionFrom(PlayerStateMachine.FAILURE, PlayerStatus.STOPPING);
+        }
+        if (mState.is(PlayerStatus.SUCCESS)) {
+            ThumbnailCache.getInstance(this).saveFrame(mUri, textureView, mPlayer);
+        }
+        if (mState.is(PlayerStatus.SUCCESS) && mBackgroundGrace.detach(mPlayer)) {
+            //保持取流，只解绑画面，超过宽限时间后再停止
+            mStreamController.setPlaying(false);
+            mFrameMonitor.stop();
+            Log.d(TAG, "onSurfaceTextureDestroyed: setVideoWindow(null)");
+            return false;
+        }
+        if (mState.transitionFrom(PlayerStateMachine.ACTIVE, PlayerStatus.STOPPING)) {//暂停播放，再次进入时恢复播放
+            PlayerRegistry.unregister(mPlayer);
+            stopPreRoll();
+            mStreamController.setPlaying(false);
+            mFrameMonitor.stop();
+            progressBar.setVisibility(View.GONE);
+            PlayerTaskExecutor.getInstance().stopPlay(mPlayer);//加载中离开页面时同时取消开流
             Log.d(TAG, "onSurfaceTextureDestroyed: stopPlay");
         }
         return false;
@@ -548,7 +886,12 @@ public class PreviewActivity extends AppCompatActivity implements View.OnClickLi
 
     @Override
     public void onSurfaceTextureUpdated(SurfaceTexture surface) {
-
+        mFrameMonitor.onFrame();
+        if (mStartupTrace != null && mState.is(PlayerStatus.SUCCESS)) {
+            //第一帧画面已经显示，结束开流耗时统计
+            mStartupTrace.mark(StartupTrace.STAGE_FIRST_FRAME);
+            mStartupTrace = null;
+        }
     }
 
 }
@@ -0,0 +1,425 @@
+package cn.cordova.hikvision.sdk;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.SurfaceTexture;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.text.TextUtils;
+import android.util.Log;
+import android.view.Gravity;
+import android.view.TextureView;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+import cn.cordova.hikvision.sdk.widget.PlayWindowContainer;
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+import com.hikvision.open.hikvideoplayer.HikVideoPlayerCallback;
+
+import java.text.MessageFormat;
+import java.util.EnumSet;
+
+/**
+ * 多画面预览中的单个播放窗口，每个窗口持有独立的 TextureView 和 HikVideoPlayer
+ */
+public class PreviewTile implements HikVideoPlayerCallback, TextureView.SurfaceTextureListener {
+    private static final String TAG = "PreviewTile";
+
+    /**
+     * 播放区域
+     */
+    private final PlayWindowContainer mContainer;
+    private final TextureView mTextureView;
+    /**
+     * 第一帧画面显示前的占位图，使用该监控点上次播放的最后一帧
+     */
+    private final ImageView mThumbnailView;
+    private final ProgressBar mProgressBar;
+    private final TextView mHintText;
+
+    private final String mUri;
+    private final String mSubUri;
+    private final String mTitle;
+    private HikVideoPlayer mPlayer;
+    private AdaptiveStreamController mStreamController;
+    /**
+     * 取流异常后自动重连
+     */
+    private final StreamReconnector mReconnector;
+    /**
+     * 帧率和卡顿检测，画面冻结时按取流异常重连
+     */
+    private final FrameMonitor mFrameMonitor;
+    /**
+     * 进入后台后保持取流一段时间，宽限期内回到页面不需要重新开流
+     */
+    private final BackgroundGrace mBackgroundGrace;
+    /**
+     * 开流各阶段耗时统计，第一帧画面显示后置空
+     */
+    private volatile StartupTrace mStartupTrace;
+    private final PlayerStateMachine mState = new PlayerStateMachine();//默认闲置
+
+    public PreviewTile(@NonNull Context context, String uri, @Nullable String subUri, String title) {
+        mUri = uri;
+        mSubUri = subUri;
+        mTitle = title;
+        mReconnector = new StreamReconnector(String.valueOf(uri), new Runnable() {
+            @Override
+            public void run() {
+                if (mState.isOneOf(PlayerStatus.EXCEPTION, PlayerStatus.FAILED)) {
+                    startRealPlay();
+                }
+            }
+        });
+        mBackgroundGrace = new BackgroundGrace(new Runnable() {
+            @Override
+            public void run() {
+                if (mState.transition(PlayerStatus.SUCCESS, PlayerStatus.STOPPING)) {
+                    PlayerRegistry.unregister(mPlayer);
+                    PlayerTaskExecutor.getInstance().stopPlay(mPlayer);
+                    Log.d(TAG, "onGraceExpired: stopPlay " + mUri);
+                }
+            }
+        });
+        mFrameMonitor = new FrameMonitor(String.valueOf(uri), new FrameMonitor.OnStallListener() {
+            @Override
+            public void onStall(long frozenMs) {
+                Log.w(TAG, "onStall: " + frozenMs + "ms " + mUri);
+                if (mStreamController != null) {
+                    mStreamController.onStall();
+                }
+            }
+
+            @Override
+            public void onRecover(long frozenMs) {
+                Log.i(TAG, "onRecover: " + frozenMs + "ms " + mUri);
+            }
+
+            @Override
+            public void onFrozen(long frozenMs) {
+                if (mState.is(PlayerStatus.SUCCESS)) {
+                    onPlayerStatus(Status.EXCEPTION, FrameMonitor.ERROR_STREAM_FROZEN);
+                }
+            }
+        });
+
+        mContainer = new PlayWindowContainer(context);
+        mContainer.setBackgroundColor(Color.BLACK);
+
+        mTextureView = new TextureView(context);
+        mContainer.addView(mTextureView, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT));
+
+        mThumbnailView = new ImageView(context);
+        mThumbnailView.setScaleType(ImageView.ScaleType.FIT_XY);
+        mThumbnailView.setVisibility(View.GONE);
+        mContainer.addView(mThumbnailView, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT));
+        ThumbnailCache.getInstance(context).load(uri, mContainer, new ThumbnailCache.OnThumbnailListener() {
+            @Override
+            public void onThumbnail(@NonNull Bitmap bitmap) {
+                if (!mState.is(PlayerStatus.SUCCESS)) {
+                    mThumbnailView.setImageBitmap(bitmap);
+                    mThumbnailView.setVisibility(View.VISIBLE);
+                }
+            }
+        });
+
+        mProgressBar = new ProgressBar(context);
+        mProgressBar.setVisibility(View.GONE);
+        mContainer.addView(mProgressBar, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.WRAP_CONTENT, FrameLayout.LayoutParams.WRAP_CONTENT, Gravity.CENTER));
+
+        mHintText = new TextView(context);
+        mHintText.setTextColor(Color.WHITE);
+        mHintText.setVisibility(View.GONE);
+        mContainer.addView(mHintText, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.WRAP_CONTENT, FrameLayout.LayoutParams.WRAP_CONTENT, Gravity.CENTER));
+
+        if (!TextUtils.isEmpty(title)) {
+            TextView titleText = new TextView(context);
+            titleText.setTextColor(Color.WHITE);
+            titleText.setTextSize(12);
+            titleText.setText(title);
+            mContainer.addView(titleText, new FrameLayout.LayoutParams(
+                    FrameLayout.LayoutParams.WRAP_CONTENT, FrameLayout.LayoutParams.WRAP_CONTENT, Gravity.START | Gravity.TOP));
+        }
+
+        mTextureView.setSurfaceTextureListener(this);
+        mState.addListener(new PlayerStateMachine.OnStatusChangeListener() {
+            @Override
+            public void onStatusChange(PlayerStatus from, PlayerStatus to) {
+                EventChannel.getInstance().post(EventChannel.EVENT_STATE, mUri, "from", from.name(), "to", to.name());
+            }
+        });
+    }
+
+    /**
+     * 设置开流耗时统计，窗口创建时即为页面创建阶段
+     */
+    public void setStartupTrace(@Nullable StartupTrace trace) {
+        mStartupTrace = trace;
+        if (trace != null) {
+            trace.mark(StartupTrace.STAGE_ACTIVITY_CREATED);
+        }
+    }
+
+    public View getView() {
+        return mContainer;
+    }
+
+    public String getUri() {
+        return mUri;
+    }
+
+    public String getTitle() {
+        return mTitle;
+    }
+
+    public PlayerStatus getPlayerStatus() {
+        return mState.get();
+    }
+
+    /**
+     * 开始播放，surface 未准备好时会在 onSurfaceTextureAvailable 中自动开始
+     */
+    public void startRealPlay() {
+        if (TextUtils.isEmpty(mUri) || !mUri.contains("rtsp")) {
+            mHintText.setVisibility(View.VISIBLE);
+            mHintText.setText("视频地址链接错误");
+            return;
+        }
+        if (!mTextureView.isAvailable()) {
+            //等待 surface 准备好后再开始，加载中或播放中时不改变状态
+            mState.transitionFrom(EnumSet.of(PlayerStatus.IDLE, PlayerStatus.FAILED, PlayerStatus.EXCEPTION), PlayerStatus.STOPPING);
+            return;
+        }
+        if (!mState.moveTo(PlayerStatus.LOADING)) {
+            //加载中或播放中，忽略重复开流
+            return;
+        }
+        if (mPlayer == null) {
+            mPlayer = HikPlayerPool.getInstance().acquire();
+            if (mPlayer == null) {
+                mState.moveTo(PlayerStatus.FAILED);
+                mHintText.setVisibility(View.VISIBLE);
+                mHintText.setText("播放窗口数量已达上限");
+                return;
+            }
+            mStreamController = new AdaptiveStreamController(mContainer.getContext(), mPlayer, mUri, mSubUri, this);
+            mStreamController.onViewSizeChanged(mTextureView.getWidth(), mTextureView.getHeight());
+        }
+        mProgressBar.setVisibility(View.VISIBLE);
+        mHintText.setVisibility(View.GONE);
+        mPlayer.setSurfaceTexture(mTextureView.getSurfaceTexture());
+        final HikVideoPlayer player = mPlayer;
+        final String uri = mStreamController.selectUrl();
+        final StartupTrace trace = mStartupTrace;
+        //TODO 注意: startRealPlay() 方法会阻塞当前线程，各窗口的播放器在 PlayerTaskExecutor 中并行执行
+        PlayerTaskExecutor.getInstance().startPlay(player, new PlayerTaskExecutor.StartTask() {
+            @Override
+            public boolean start(HikVideoPlayerCallback callback) {
+                if (trace != null) {
+                    trace.mark(StartupTrace.STAGE_START_ISSUED);
+                }
+                return player.startRealPlay(uri, callback);
+            }
+        }, this);
+    }
+
+    /**
+     * 停止播放，播放器重置后归还到播放器池
+     */
+    public void stopPlay() {
+        if (mState.is(PlayerStatus.SUCCESS)) {
+            //保存最后一帧画面，下次打开该监控点时作为占位图
+            ThumbnailCache.getInstance(mContainer.getContext()).saveFrame(mUri, mTextureView, mPlayer);
+        }
+        mReconnector.cancel();
+        mFrameMonitor.stop();
+        mBackgroundGrace.cancel();
+        PlayerRegistry.unregister(mPlayer);
+        HikPlayerPool.getInstance().release(mPlayer);
+        mPlayer = null;
+        if (mStreamController != null) {
+            mStreamController.release();
+            mStreamController = null;
+        }
+        mState.moveTo(PlayerStatus.IDLE);
+        mProgressBar.setVisibility(View.GONE);
+        mTextureView.setKeepScreenOn(false);
+    }
+
+    public void onResume() {
+        //TODO 注意:APP前后台切换时 SurfaceTextureListener可能在有某些 华为手机 上不会回调，所以我们在这里手动调用
+        if (mTextureView.isAvailable()) {
+            onSurfaceTextureAvailable(mTextureView.getSurfaceTexture(), mTextureView.getWidth(), mTextureView.getHeight());
+        }
+    }
+
+    public void onPause() {
+        if (mTextureView.isAvailable()) {
+            onSurfaceTextureDestroyed(mTextureView.getSurfaceTexture());
+        }
+    }
+
+    /**
+     * 释放窗口，Activity 销毁时调用
+     */
+    public void release() {
+        if (mStartupTrace != null) {
+            mStartupTrace.complete();
+            mStartupTrace = null;
+        }
+        stopPlay();
+    }
+
+    /**
+     * 播放结果回调
+     *
+     * @param status    共四种状态：SUCCESS（播放成功）、FAILED（播放失败）、EXCEPTION（取流异常）、FINISH（回放结束）
+     * @param errorCode 错误码，只有 FAILED 和 EXCEPTION 才有值
+     */
+    @Override
+    @WorkerThread
+    public void onPlayerStatus(@NonNull Status status, int errorCode) {
+        StartupTrace trace = mStartupTrace;
+        if (trace != null && status == Status.SUCCESS) {
+            trace.mark(StartupTrace.STAGE_PLAY_SUCCESS);
+        }
+        //TODO 注意: 由于 HikVideoPlayerCallback 是在子线程中进行回调的，所以一定要切换到主线程处理UI
+        mContainer.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!mState.moveTo(PlayerStateMachine.of(status))) {
+                    //窗口已经停止或重新开流，忽略迟到的回调
+                    return;
+                }
+                //只发送状态机接受的结果，迟到的回调不再通知 JS
+                EventChannel.getInstance().postStatus(mUri, status, errorCode);
+                mProgressBar.setVisibility(View.GONE);
+                if (status == Status.SUCCESS) {
+                    PlayerRegistry.register(mPlayer, mUri, mSubUri);
+                } else {
+                    PlayerRegistry.unregister(mPlayer);
+                }
+                if (status != Status.SUCCESS && mBackgroundGrace.isDetached()) {
+                    //后台保持取流期间出现异常，不在后台重连，回到页面时重新开流
+                    mBackgroundGrace.cancel();
+                    mState.moveTo(PlayerStatus.STOPPING);
+                    if (mStreamController != null) {
+                        mStreamController.setPlaying(false);
+                    }
+                    PlayerTaskExecutor.getInstance().stopPlay(mPlayer);
+                    return;
+                }
+                if (mStreamController != null) {
+                    mStreamController.setPlaying(status == Status.SUCCESS);
+                }
+                if (status == Status.SUCCESS) {
+                    mFrameMonitor.start();
+                } else {
+                    mFrameMonitor.stop();
+                }
+                switch (status) {
+                    case SUCCESS:
+                        mHintText.setVisibility(View.GONE);
+                        mTextureView.setKeepScreenOn(true);//保持亮屏
+                        mReconnector.onSuccess();
+                        break;
+                    case FAILED:
+                        //重连中的失败会继续重连
+                        mHintText.setVisibility(View.VISIBLE);
+                        if (mReconnector.isReconnecting() && mReconnector.onError(errorCode)) {
+                            mHintText.setText(MessageFormat.format("正在重连({0})", mReconnector.getAttempt()));
+                        } else {
+                            mHintText.setText(MessageFormat.format("预览失败，错误码：{0}", Integer.toHexString(errorCode)));
+                        }
+                        break;
+                    case EXCEPTION:
+                        PlayerTaskExecutor.getInstance().stopPlay(mPlayer);//TODO 注意:异常时关闭取流
+                        mHintText.setVisibility(View.VISIBLE);
+                        if (mReconnector.onError(errorCode)) {
+                            mHintText.setText(MessageFormat.format("正在重连({0})", mReconnector.getAttempt()));
+                        } else {
+                            mHintText.setText(MessageFormat.format("取流发生异常，错误码：{0}", Integer.toHexString(errorCode)));
+                        }
+                        break;
+                }
+            }
+        });
+    }
+
+    /*************************TextureView.SurfaceTextureListener 接口的回调方法********************/
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture surface, int width, int height) {
+        if (mStartupTrace != null) {
+            mStartupTrace.mark(StartupTrace.STAGE_SURFACE_AVAILABLE);
+        }
+        if (mState.is(PlayerStatus.SUCCESS) && mBackgroundGrace.attach(mPlayer, surface)) {
+            //宽限期内回到页面，重新绑定画面即可
+            mStreamController.setPlaying(true);
+            mFrameMonitor.start();
+            return;
+        }
+        if (mState.isOneOf(PlayerStatus.IDLE, PlayerStatus.STOPPING)) {
+            //多画面预览在 surface 准备好后自动开始播放
+            startRealPlay();
+            Log.d(TAG, "onSurfaceTextureAvailable: startRealPlay " + mUri);
+        }
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surface, int width, int height) {
+        if (mStreamController != null) {
+            mStreamController.onViewSizeChanged(width, height);
+        }
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(SurfaceTexture surface) {
+        if (mReconnector.isReconnecting()) {
+            mReconnector.cancel();
+            //重连等待中进入后台，回到页面时重新开流
+            mState.transitionFrom(PlayerStateMachine.FAILURE, PlayerStatus.STOPPING);
+        }
+        if (mState.is(PlayerStatus.SUCCESS)) {
+            ThumbnailCache.getInstance(mContainer.getContext()).saveFrame(mUri, mTextureView, mPlayer);
+        }
+        if (mState.is(PlayerStatus.SUCCESS) && mBackgroundGrace.detach(mPlayer)) {
+            //保持取流，只解绑画面，超过宽限时间后再停止
+            mStreamController.setPlaying(false);
+            mFrameMonitor.stop();
+            return false;
+        }
+        if (mState.transitionFrom(PlayerStateMachine.ACTIVE, PlayerStatus.STOPPING)) {//暂停播放，再次进入时恢复播放
+            PlayerRegistry.unregister(mPlayer);
+            PlayerTaskExecutor.getInstance().stopPlay(mPlayer);
+            mStreamController.setPlaying(false);
+            mFrameMonitor.stop();
+            Log.d(TAG, "onSurfaceTextureDestroyed: stopPlay " + mUri);
+        }
+        return false;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture surface) {
+        mFrameMonitor.onFrame();
+        if (mThumbnailView.getVisibility() == View.VISIBLE && mState.is(PlayerStatus.SUCCESS)) {
+            //画面已经显示，隐藏占位图
+            mThumbnailView.setVisibility(View.GONE);
+            mThumbnailView.setImageDrawable(null);
+        }
+        if (mStartupTrace != null && mState.is(PlayerStatus.SUCCESS)) {
+            //第一帧画面已经显示，结束开流耗时统计
+            mStartupTrace.mark(StartupTrace.STAGE_FIRST_FRAME);
+            mStartupTrace = null;
+        }
+    }
+}
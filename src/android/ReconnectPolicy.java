@@ -0,0 +1,97 @@
+package cn.cordova.hikvision.sdk;
+
+import android.support.annotation.Nullable;
+
+import org.json.JSONObject;
+
+import java.util.Random;
+
+/**
+ * 取流异常后的重连策略
+ * <p>
+ * 按错误码判断是否可以重连：17是mgc或媒体取流SDK的错误，18是vod，19是dac。媒体取流和vod的错误多为网络抖动，
+ * 可以重连；dac的错误多为设备鉴权、权限等问题，重连也无法恢复。重连间隔按指数退避并加入随机抖动，
+ * 避免大量监控点同时重连。
+ */
+public class ReconnectPolicy {
+    /**
+     * 错误码分类，取错误码16进制的前两位
+     */
+    public static final int ERROR_CLASS_MEDIA = 0x17;
+    public static final int ERROR_CLASS_VOD = 0x18;
+    public static final int ERROR_CLASS_DAC = 0x19;
+
+    private static final long DEFAULT_BASE_DELAY_MS = 1000;
+    private static final long DEFAULT_MAX_DELAY_MS = 30 * 1000;
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    private static volatile ReconnectPolicy sDefault = new ReconnectPolicy(DEFAULT_BASE_DELAY_MS, DEFAULT_MAX_DELAY_MS, DEFAULT_MAX_ATTEMPTS);
+
+    private final long mBaseDelayMs;
+    private final long mMaxDelayMs;
+    private final int mMaxAttempts;
+    private final Random mRandom = new Random();
+
+    public ReconnectPolicy(long baseDelayMs, long maxDelayMs, int maxAttempts) {
+        mBaseDelayMs = Math.max(1, baseDelayMs);
+        mMaxDelayMs = Math.max(mBaseDelayMs, maxDelayMs);
+        mMaxAttempts = Math.max(0, maxAttempts);
+    }
+
+    public static ReconnectPolicy getDefault() {
+        return sDefault;
+    }
+
+    /**
+     * 设置默认重连策略，参数格式：{ 'maxAttempts': number, 'baseDelay': number, 'maxDelay': number }，时间单位毫秒
+     */
+    public static void configure(@Nullable JSONObject options) {
+        if (options == null) {
+            return;
+        }
+        sDefault = new ReconnectPolicy(options.optLong("baseDelay", DEFAULT_BASE_DELAY_MS),
+                options.optLong("maxDelay", DEFAULT_MAX_DELAY_MS),
+                options.optInt("maxAttempts", DEFAULT_MAX_ATTEMPTS));
+    }
+
+    public int getMaxAttempts() {
+        return mMaxAttempts;
+    }
+
+    /**
+     * 错误码分类
+     *
+     * @return 错误码16进制的前两位，例如 0x17
+     */
+    public static int getErrorClass(int errorCode) {
+        long value = errorCode & 0xffffffffL;
+        while (value > 0xff) {
+            value >>>= 4;
+        }
+        return (int) value;
+    }
+
+    /**
+     * 判断错误是否可以通过重连恢复
+     */
+    public boolean isRetryable(int errorCode) {
+        if (errorCode == PlayerTaskExecutor.ERROR_CONNECT_TIMEOUT) {
+            return true;
+        }
+        return getErrorClass(errorCode) != ERROR_CLASS_DAC;
+    }
+
+    /**
+     * 计算第 attempt 次重连前的等待时间，在指数退避的基础上取 [delay/2, delay] 之间的随机值
+     *
+     * @param attempt 从1开始的重连次数
+     */
+    public long getDelay(int attempt) {
+        long delay = mBaseDelayMs << Math.min(Math.max(attempt - 1, 0), 20);
+        if (delay <= 0 || delay > mMaxDelayMs) {
+            delay = mMaxDelayMs;
+        }
+        long half = delay / 2;
+        return half + (long) (mRandom.nextDouble() * (delay - half));
+    }
+}
@@ -0,0 +1,137 @@
+package cn.cordova.hikvision.sdk;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+import com.hikvision.open.hikvideoplayer.HikVideoPlayerCallback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 回放定位调度器
+ * <p>
+ * 拖动时间轴时会连续产生大量定位请求，这里只保留最新的目标时间：正在执行 seekAbsPlayback 时到达的请求
+ * 会互相覆盖，当前定位结束后只执行最后一个，并回调实际的定位耗时。被覆盖的请求不单独执行，
+ * 它们的回调和最后一个请求一起在定位完成后回调。
+ */
+public class SeekScheduler {
+    private static final long NO_TARGET = Long.MIN_VALUE;
+
+    private final HikVideoPlayer mPlayer;
+    private final HikVideoPlayerCallback mCallback;
+    private final OnSeekListener mListener;
+    /**
+     * 以下四个字段通过 this 加锁：等待执行的目标时间、最新一次请求的时间（用来计算定位耗时）、
+     * 被覆盖而跳过的请求数、等待定位结果的回调
+     */
+    private long mPendingTarget = NO_TARGET;
+    private long mPendingRequestTime;
+    private int mSkippedCount = 0;
+    private final List<OnSeekListener> mPendingListeners = new ArrayList<>();
+    /**
+     * 是否已经向播放器队列提交了定位任务
+     */
+    private final AtomicBoolean mScheduled = new AtomicBoolean(false);
+
+    public interface OnSeekListener {
+        /**
+         * 定位完成回调，在子线程中回调；cancel 时在调用 cancel 的线程中以 success 为 false 回调
+         *
+         * @param targetTime 定位的目标时间，毫秒时间戳
+         * @param success    seekAbsPlayback 是否调用成功
+         * @param latencyMs  从发起请求到定位完成的耗时
+         * @param skipped    本次定位之前被覆盖跳过的请求数
+         */
+        @WorkerThread
+        void onSeekComplete(long targetTime, boolean success, long latencyMs, int skipped);
+    }
+
+    public SeekScheduler(@NonNull HikVideoPlayer player, @NonNull HikVideoPlayerCallback callback, @NonNull OnSeekListener listener) {
+        mPlayer = player;
+        mCallback = callback;
+        mListener = listener;
+    }
+
+    /**
+     * 请求定位，可以在任意线程中频繁调用
+     *
+     * @param time     回放的绝对时间，单位毫秒
+     * @param listener 本次请求的结果回调，请求被覆盖时回调实际执行的那次定位的结果
+     */
+    public void requestSeek(long time, @Nullable OnSeekListener listener) {
+        synchronized (this) {
+            mPendingRequestTime = SystemClock.elapsedRealtime();
+            if (mPendingTarget != NO_TARGET) {
+                mSkippedCount++;
+            }
+            mPendingTarget = time;
+            if (listener != null) {
+                mPendingListeners.add(listener);
+            }
+        }
+        if (mScheduled.compareAndSet(false, true)) {
+            PlayerTaskExecutor.getInstance().execute(mPlayer, mSeekTask);
+        }
+    }
+
+    /**
+     * 丢弃还未执行的定位请求
+     */
+    public void cancel() {
+        long target;
+        List<OnSeekListener> listeners;
+        synchronized (this) {
+            target = mPendingTarget;
+            listeners = new ArrayList<>(mPendingListeners);
+            mPendingTarget = NO_TARGET;
+            mSkippedCount = 0;
+            mPendingListeners.clear();
+        }
+        for (OnSeekListener listener : listeners) {
+            listener.onSeekComplete(target, false, 0, 0);
+        }
+    }
+
+    private final Runnable mSeekTask = new Runnable() {
+        @Override
+        public void run() {
+            //先清除标记，定位过程中到达的新请求会重新提交一个任务排在后面
+            mScheduled.set(false);
+            long requestTime;
+            long target;
+            int skipped;
+            List<OnSeekListener> listeners;
+            synchronized (SeekScheduler.this) {
+                requestTime = mPendingRequestTime;
+                target = mPendingTarget;
+                skipped = mSkippedCount;
+                listeners = new ArrayList<>(mPendingListeners);
+                mPendingTarget = NO_TARGET;
+                mSkippedCount = 0;
+                mPendingListeners.clear();
+            }
+            if (target == NO_TARGET) {
+                return;
+            }
+            boolean success = seekAbsPlayback(target);
+            long latencyMs = SystemClock.elapsedRealtime() - requestTime;
+            mListener.onSeekComplete(target, success, latencyMs, skipped);
+            for (OnSeekListener listener : listeners) {
+                listener.onSeekComplete(target, success, latencyMs, skipped);
+            }
+        }
+    };
+
+    /**
+     * 字符串时间的重载直接交给 native 层解析，SDK 没有说明格式，继续使用 AbsTime 重载
+     */
+    @SuppressWarnings("deprecation")
+    private boolean seekAbsPlayback(long target) {
+        return mPlayer.seekAbsPlayback(MyUtils.toAbsTime(target), mCallback);
+    }
+}
@@ -0,0 +1,220 @@
+package cn.cordova.hikvision.sdk;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分段循环录像
+ * <p>
+ * 没有设置分段时长时只录一个文件，用于预录（{@link PreRollBuffer}）后继续录像。
+ * <p>
+ * 按固定时长轮换 startRecord/stopRecord，每段写入该监控点的录像目录。同一个播放器同时只能有一个录像，
+ * 轮换时在播放器的串行队列中连续执行 stopRecord 和 startRecord，中间不插入其他操作，尽量缩短两段之间的间隔。
+ * 每段开始时抓一张缩略图，结束后写入 {@link MediaIndex}，并由 {@link StorageJanitor} 按容量和时间清理旧录像。
+ */
+public class SegmentRecorder {
+    private static final String TAG = "SegmentRecorder";
+
+    private static final long MIN_SEGMENT_MS = 10 * 1000;
+
+    /**
+     * 分段时长，0 代表不分段
+     */
+    private static volatile long sSegmentMs = 0;
+    private static final ScheduledExecutorService sTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "hik-segment-timer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final Context mContext;
+    private final String mUrl;
+    private final HikVideoPlayer mPlayer;
+    private final long mSegmentMs;
+    private final OnSegmentListener mListener;
+    /**
+     * 以下字段只在播放器的串行队列中读写
+     */
+    private String mCurrentPath;
+    private long mSegmentStartTime;
+    private boolean mRecording = false;
+    private volatile ScheduledFuture<?> mRotateFuture;
+
+    public interface OnSegmentListener {
+        /**
+         * 一段录像写完，在子线程中回调
+         */
+        void onSegmentComplete(String path);
+
+        /**
+         * 开始录像失败，录像已停止，在子线程中回调
+         */
+        void onRecordError(int errorCode);
+    }
+
+    /**
+     * 设置分段录像、预录和清理策略，参数格式：{ 'segmentDuration': number, 'preRoll': number, 'preRollQuota': number, 'cameraQuota': number, 'totalQuota': number, 'maxAge': number }
+     */
+    public static void configure(@Nullable JSONObject options) {
+        if (options == null) {
+            return;
+        }
+        long segmentMs = options.optLong("segmentDuration", 0);
+        sSegmentMs = segmentMs > 0 ? Math.max(MIN_SEGMENT_MS, segmentMs) : 0;
+        StorageJanitor.getInstance().configure(options);
+        PreRollBuffer.configure(options);
+    }
+
+    /**
+     * 是否开启了分段录像
+     */
+    public static boolean isRolling() {
+        return sSegmentMs > 0;
+    }
+
+    /**
+     * 开启分段录像或预录时录像页面使用 SegmentRecorder，否则使用单个文件
+     */
+    public static boolean isEnabled() {
+        return isRolling() || PreRollBuffer.isEnabled();
+    }
+
+    public SegmentRecorder(@NonNull Context context, @NonNull String url, @NonNull HikVideoPlayer player,
+                           @NonNull OnSegmentListener listener) {
+        mContext = context.getApplicationContext();
+        mUrl = url;
+        mPlayer = player;
+        mSegmentMs = sSegmentMs;
+        mListener = listener;
+    }
+
+    /**
+     * 录像目录
+     */
+    public File getDirectory() {
+        return MyUtils.getRecordDir(mContext, mUrl);
+    }
+
+    public void start() {
+        start(null);
+    }
+
+    /**
+     * 开始录像，preRoll 不为空时先把预录的片段移到录像目录，再在同一个队列任务中开始录像
+     */
+    public void start(@Nullable final PreRollBuffer preRoll) {
+        PlayerTaskExecutor.getInstance().execute(mPlayer, new Runnable() {
+            @Override
+            public void run() {
+                if (mRecording) {
+                    return;
+                }
+                mRecording = true;
+                if (preRoll != null) {
+                    preRoll.handOff(getDirectory());
+                }
+                if (startSegment() && mSegmentMs > 0) {
+                    mRotateFuture = sTimer.scheduleAtFixedRate(mRotateTask, mSegmentMs, mSegmentMs, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+        StorageJanitor.getInstance().trim(mContext);
+    }
+
+    public void stop() {
+        PlayerTaskExecutor.getInstance().execute(mPlayer, new Runnable() {
+            @Override
+            public void run() {
+                cancelRotation();
+                if (!mRecording) {
+                    return;
+                }
+                mRecording = false;
+                finishSegment();
+                StorageJanitor.getInstance().trim(mContext);
+            }
+        });
+    }
+
+    private final Runnable mRotateTask = new Runnable() {
+        @Override
+        public void run() {
+            PlayerTaskExecutor.getInstance().execute(mPlayer, new Runnable() {
+                @Override
+                public void run() {
+                    if (!mRecording) {
+                        return;
+                    }
+                    //连续执行，两段录像之间只有 stopRecord 和 startRecord 的耗时
+                    finishSegment();
+                    if (!startSegment()) {
+                        cancelRotation();
+                    }
+                    StorageJanitor.getInstance().trim(mContext);
+                }
+            });
+        }
+    };
+
+    private void cancelRotation() {
+        ScheduledFuture<?> future = mRotateFuture;
+        mRotateFuture = null;
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * 开始新的一段录像，失败时停止录像
+     */
+    private boolean startSegment() {
+        File dir = getDirectory();
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.e(TAG, "startSegment: mkdirs failed " + dir);
+        }
+        String path = new File(dir, MyUtils.getFileName("") + ".mp4").getAbsolutePath();
+        StorageJanitor.getInstance().addActivePath(path);
+        if (mPlayer.startRecord(path)) {
+            mCurrentPath = path;
+            mSegmentStartTime = System.currentTimeMillis();
+            //录像已经开始，抓图不会增加两段之间的间隔
+            mPlayer.capturePicture(MediaIndex.getThumbnailPath(path));
+            return true;
+        }
+        StorageJanitor.getInstance().removeActivePath(path);
+        mRecording = false;
+        int errorCode = mPlayer.getLastError();
+        Log.e(TAG, "startSegment failed: " + Integer.toHexString(errorCode));
+        mListener.onRecordError(errorCode);
+        return false;
+    }
+
+    private void finishSegment() {
+        String path = mCurrentPath;
+        mCurrentPath = null;
+        if (path == null) {
+            return;
+        }
+        mPlayer.stopRecord();
+        StorageJanitor.getInstance().removeActivePath(path);
+        MediaIndex.getInstance(mContext).add(mUrl, MediaIndex.TYPE_RECORD, path, mSegmentStartTime,
+                System.currentTimeMillis(), MediaIndex.getThumbnailPath(path));
+        mListener.onSegmentComplete(path);
+    }
+}
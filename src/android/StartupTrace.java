@@ -0,0 +1,141 @@
+package cn.cordova.hikvision.sdk;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单路视频从调用插件到画面上屏的各阶段耗时
+ * <p>
+ * 阶段依次为：插件收到调用、页面创建、surface 可用、发起 startRealPlay、播放成功回调、第一帧画面更新。
+ * 第一帧画面更新或页面销毁时结束统计，通过 {@link OnTraceCompleteListener} 返回各阶段耗时。
+ */
+public class StartupTrace {
+    private static final String TAG = "StartupTrace";
+
+    public static final int STAGE_BRIDGE = 0;
+    public static final int STAGE_ACTIVITY_CREATED = 1;
+    public static final int STAGE_SURFACE_AVAILABLE = 2;
+    public static final int STAGE_START_ISSUED = 3;
+    public static final int STAGE_PLAY_SUCCESS = 4;
+    public static final int STAGE_FIRST_FRAME = 5;
+
+    private static final String[] STAGE_NAMES = {
+            "bridge", "activityCreated", "surfaceAvailable", "startIssued", "playSuccess", "firstFrame"
+    };
+
+    private static final Map<String, StartupTrace> sTraces = new ConcurrentHashMap<>();
+    private static final AtomicInteger sNextId = new AtomicInteger();
+
+    private final String mId;
+    private final String mUrl;
+    /**
+     * 各阶段的时间点，0 代表未到达
+     */
+    private final long[] mStageTimes = new long[STAGE_NAMES.length];
+    private final OnTraceCompleteListener mListener;
+    private volatile boolean mCompleted = false;
+
+    public interface OnTraceCompleteListener {
+        void onTraceComplete(StartupTrace trace);
+    }
+
+    private StartupTrace(String id, String url, OnTraceCompleteListener listener) {
+        mId = id;
+        mUrl = url;
+        mListener = listener;
+    }
+
+    /**
+     * 插件收到调用时开始统计
+     */
+    public static StartupTrace begin(String url, @NonNull OnTraceCompleteListener listener) {
+        String id = "trace-" + sNextId.incrementAndGet();
+        StartupTrace trace = new StartupTrace(id, url, listener);
+        trace.mark(STAGE_BRIDGE);
+        sTraces.put(id, trace);
+        return trace;
+    }
+
+    /**
+     * 页面通过 Intent 中的 id 找到对应的统计
+     */
+    @Nullable
+    public static StartupTrace get(@Nullable String id) {
+        return id == null ? null : sTraces.get(id);
+    }
+
+    public String getId() {
+        return mId;
+    }
+
+    /**
+     * 记录阶段时间，每个阶段只记录第一次
+     */
+    public void mark(int stage) {
+        if (mCompleted) {
+            return;
+        }
+        synchronized (mStageTimes) {
+            if (mStageTimes[stage] != 0) {
+                return;
+            }
+            mStageTimes[stage] = SystemClock.elapsedRealtime();
+        }
+        if (stage == STAGE_FIRST_FRAME) {
+            complete();
+        }
+    }
+
+    public boolean isCompleted() {
+        return mCompleted;
+    }
+
+    /**
+     * 结束统计，页面销毁时如果还没有画面也会结束，未到达的阶段不返回
+     */
+    public void complete() {
+        synchronized (mStageTimes) {
+            if (mCompleted) {
+                return;
+            }
+            mCompleted = true;
+        }
+        sTraces.remove(mId);
+        mListener.onTraceComplete(this);
+    }
+
+    /**
+     * 各阶段相对于插件收到调用的时间，格式：{ 'id': string, 'url': string, 'stages': { stage: ms }, 'total': ms }
+     */
+    public JSONObject toJson() {
+        JSONObject result = new JSONObject();
+        try {
+            result.put("id", mId);
+            result.put("url", mUrl);
+            JSONObject stages = new JSONObject();
+            long begin = mStageTimes[STAGE_BRIDGE];
+            long last = begin;
+            for (int i = 0; i < mStageTimes.length; i++) {
+                if (mStageTimes[i] != 0) {
+                    stages.put(STAGE_NAMES[i], mStageTimes[i] - begin);
+                    last = Math.max(last, mStageTimes[i]);
+                }
+            }
+            result.put("stages", stages);
+            result.put("firstFrame", mStageTimes[STAGE_FIRST_FRAME] != 0);
+            result.put("total", last - begin);
+        } catch (JSONException e) {
+            Log.e(TAG, "toJson: " + e.toString());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,212 @@
+package cn.cordova.hikvision.sdk;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static android.os.Environment.DIRECTORY_MOVIES;
+
+/**
+ * 录像目录的存储清理
+ * <p>
+ * Movies 目录下每个子目录是一个监控点的分段录像，根目录是单文件录像。按最长保存时间、单个监控点的容量上限和
+ * 总容量上限依次清理，都是先删除最早的录像；正在写入的录像不会被删除。清理在后台线程中执行，连续的请求会合并。
+ * 删除录像时同时删除它的缩略图和 {@link MediaIndex} 中的记录。三个限制默认都是 0（不限制），都不限制时不做清理。
+ */
+public class StorageJanitor {
+    private static final String TAG = "StorageJanitor";
+
+    private static final String RECORD_SUFFIX = ".mp4";
+
+    private static final StorageJanitor sInstance = new StorageJanitor();
+
+    private volatile long mCameraQuotaBytes;
+    private volatile long mTotalQuotaBytes;
+    private volatile long mMaxAgeMs;
+    /**
+     * 正在写入的录像文件
+     */
+    private final Set<String> mActivePaths = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final AtomicBoolean mPending = new AtomicBoolean(false);
+    private final ExecutorService mExecutor;
+    private volatile Context mContext;
+
+    private StorageJanitor() {
+        mExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "hik-storage-janitor");
+                thread.setPriority(Thread.MIN_PRIORITY);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public static StorageJanitor getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * 设置清理策略，参数格式：{ 'cameraQuota': number, 'totalQuota': number, 'maxAge': number }，容量单位字节，时间单位毫秒，0 代表不限制
+     */
+    public void configure(@Nullable JSONObject options) {
+        if (options == null) {
+            return;
+        }
+        mCameraQuotaBytes = options.optLong("cameraQuota", 0);
+        mTotalQuotaBytes = options.optLong("totalQuota", 0);
+        mMaxAgeMs = options.optLong("maxAge", 0);
+    }
+
+    public void addActivePath(@NonNull String path) {
+        mActivePaths.add(path);
+    }
+
+    public void removeActivePath(@Nullable String path) {
+        if (path != null) {
+            mActivePaths.remove(path);
+        }
+    }
+
+    /**
+     * 请求清理，没有设置任何限制时直接返回，已有等待执行的清理时不重复提交
+     */
+    public void trim(@NonNull Context context) {
+        if (!isEnabled()) {
+            return;
+        }
+        mContext = context.getApplicationContext();
+        final File root = mContext.getExternalFilesDir(DIRECTORY_MOVIES);
+        if (root == null || !mPending.compareAndSet(false, true)) {
+            return;
+        }
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                mPending.set(false);
+                trimNow(root);
+            }
+        });
+    }
+
+    /**
+     * 是否设置了清理策略
+     */
+    public boolean isEnabled() {
+        return mCameraQuotaBytes > 0 || mTotalQuotaBytes > 0 || mMaxAgeMs > 0;
+    }
+
+    @WorkerThread
+    private void trimNow(File root) {
+        long now = System.currentTimeMillis();
+        List<File> all = new ArrayList<>();
+        List<File> rootFiles = new ArrayList<>();
+        File[] children = root.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                List<File> cameraFiles = listRecordings(child);
+                removeExpired(cameraFiles, now);
+                removeOverQuota(cameraFiles, mCameraQuotaBytes);
+                all.addAll(cameraFiles);
+            } else if (isDeletable(child)) {
+                rootFiles.add(child);
+            }
+        }
+        removeExpired(rootFiles, now);
+        all.addAll(rootFiles);
+        removeOverQuota(all, mTotalQuotaBytes);
+    }
+
+    private List<File> listRecordings(File dir) {
+        List<File> result = new ArrayList<>();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (isDeletable(file)) {
+                    result.add(file);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 只统计录像文件，缩略图跟随录像一起删除
+     */
+    private boolean isDeletable(File file) {
+        return file.isFile() && file.getName().endsWith(RECORD_SUFFIX) && !mActivePaths.contains(file.getAbsolutePath());
+    }
+
+    private void removeExpired(List<File> files, long now) {
+        long maxAge = mMaxAgeMs;
+        if (maxAge <= 0) {
+            return;
+        }
+        for (int i = files.size() - 1; i >= 0; i--) {
+            File file = files.get(i);
+            if (now - file.lastModified() > maxAge && delete(file)) {
+                files.remove(i);
+            }
+        }
+    }
+
+    /**
+     * 超过容量上限时从最早的录像开始删除
+     */
+    private void removeOverQuota(List<File> files, long quota) {
+        if (quota <= 0) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= quota) {
+            return;
+        }
+        Collections.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File left, File right) {
+                return Long.compare(left.lastModified(), right.lastModified());
+            }
+        });
+        while (total > quota && !files.isEmpty()) {
+            File file = files.remove(0);
+            long length = file.length();
+            if (delete(file)) {
+                total -= length;
+            }
+        }
+    }
+
+    private boolean delete(File file) {
+        if (file.delete()) {
+            String path = file.getAbsolutePath();
+            Log.i(TAG, "delete: " + path);
+            new File(MediaIndex.getThumbnailPath(path)).delete();
+            MediaIndex.getInstance(mContext).remove(path);
+            return true;
+        }
+        return false;
+    }
+}
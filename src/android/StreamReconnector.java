@@ -0,0 +1,152 @@
+package cn.cordova.hikvision.sdk;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.UiThread;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单路视频的自动重连，取流异常或重连失败后按 {@link ReconnectPolicy} 延迟重新开流
+ * <p>
+ * 各监控点的重连次数会被统计，供 JS 查询哪些监控点不稳定。
+ */
+public class StreamReconnector {
+    private static final String TAG = "StreamReconnector";
+
+    /**
+     * 各监控点的重连统计，key 为监控点地址
+     */
+    private static final Map<String, Stats> sStats = new ConcurrentHashMap<>();
+
+    private final String mUrl;
+    private final Runnable mReconnectTask;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private ReconnectPolicy mPolicy;
+    /**
+     * 当前连续重连的次数，播放成功后清零
+     */
+    private int mAttempt = 0;
+
+    /**
+     * @param url           监控点地址
+     * @param reconnectTask 重新开流的任务，在主线程中执行
+     */
+    public StreamReconnector(@NonNull String url, @NonNull Runnable reconnectTask) {
+        mUrl = url;
+        mReconnectTask = reconnectTask;
+    }
+
+    /**
+     * 是否正在重连
+     */
+    public boolean isReconnecting() {
+        return mAttempt > 0;
+    }
+
+    public int getAttempt() {
+        return mAttempt;
+    }
+
+    /**
+     * 取流异常或重连失败
+     *
+     * @return true-已安排重连，false-错误不可恢复或超过最大重连次数
+     */
+    @UiThread
+    public boolean onError(int errorCode) {
+        if (mAttempt == 0) {
+            //每轮重连开始时读取一次策略，配置变化在下一轮生效
+            mPolicy = ReconnectPolicy.getDefault();
+        }
+        Stats stats = stats(mUrl);
+        stats.lastError = errorCode;
+        if (!mPolicy.isRetryable(errorCode) || mAttempt >= mPolicy.getMaxAttempts()) {
+            Log.w(TAG, "onError: give up " + mUrl + ", error = " + Integer.toHexString(errorCode) + ", attempt = " + mAttempt);
+            stats.failures++;
+            mAttempt = 0;
+            EventChannel.getInstance().post(EventChannel.EVENT_RECONNECT_FAILED, mUrl, "errorCode", Integer.toHexString(errorCode));
+            return false;
+        }
+        mAttempt++;
+        stats.reconnects++;
+        long delay = mPolicy.getDelay(mAttempt);
+        Log.i(TAG, "onError: reconnect " + mUrl + " in " + delay + "ms, attempt = " + mAttempt);
+        EventChannel.getInstance().post(EventChannel.EVENT_RECONNECT, mUrl, "attempt", mAttempt, "delay", delay,
+                "errorCode", Integer.toHexString(errorCode));
+        mHandler.removeCallbacks(mReconnectTask);
+        mHandler.postDelayed(mReconnectTask, delay);
+        return true;
+    }
+
+    /**
+     * 播放成功，重置重连次数
+     */
+    @UiThread
+    public void onSuccess() {
+        if (mAttempt > 0) {
+            stats(mUrl).recoveries++;
+            mAttempt = 0;
+        }
+    }
+
+    /**
+     * 取消还未执行的重连，停止播放或离开页面时调用
+     */
+    @UiThread
+    public void cancel() {
+        mHandler.removeCallbacks(mReconnectTask);
+        mAttempt = 0;
+    }
+
+    private static Stats stats(String url) {
+        Stats stats = sStats.get(url);
+        if (stats == null) {
+            Stats newStats = new Stats();
+            stats = sStats.putIfAbsent(url, newStats);
+            if (stats == null) {
+                stats = newStats;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 所有监控点的重连统计，格式：{ url: { 'reconnects': number, 'recoveries': number, 'failures': number, 'lastError': string } }
+     */
+    public static JSONObject getStats() throws JSONException {
+        JSONObject result = new JSONObject();
+        for (Map.Entry<String, Stats> entry : sStats.entrySet()) {
+            Stats stats = entry.getValue();
+            JSONObject item = new JSONObject();
+            item.put("reconnects", stats.reconnects);
+            item.put("recoveries", stats.recoveries);
+            item.put("failures", stats.failures);
+            item.put("lastError", Integer.toHexString(stats.lastError));
+            result.put(entry.getKey(), item);
+        }
+        return result;
+    }
+
+    private static class Stats {
+        /**
+         * 重连次数
+         */
+        volatile int reconnects;
+        /**
+         * 重连后恢复播放的次数
+         */
+        volatile int recoveries;
+        /**
+         * 放弃重连的次数
+         */
+        volatile int failures;
+        volatile int lastError;
+    }
+}
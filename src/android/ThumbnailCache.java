@@ -0,0 +1,257 @@
+package cn.cordova.hikvision.sdk;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.TextureView;
+import android.view.View;
+
+import com.hikvision.open.hikvideoplayer.HikVideoPlayer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 监控点最后一帧画面的缩略图缓存
+ * <p>
+ * 停止播放时从 TextureView 取当前画面（取不到时用 capturePicture），缩小后放入按字节数限制的内存 LRU，
+ * 同时写入磁盘缓存，应用重启后仍然可以作为占位图。磁盘缓存超过上限时删除最早写入的文件。
+ */
+public class ThumbnailCache {
+    private static final String TAG = "ThumbnailCache";
+
+    private static final int THUMBNAIL_MAX_WIDTH = 320;
+    private static final int JPEG_QUALITY = 80;
+    private static final int MEMORY_CACHE_MAX_BYTES = 8 * 1024 * 1024;
+    private static final long DISK_CACHE_MAX_BYTES = 20 * 1024 * 1024;
+    private static final String DISK_CACHE_DIR = "hik_thumbnails";
+
+    private static volatile ThumbnailCache sInstance;
+
+    private final File mDiskDir;
+    private final LruCache<String, Bitmap> mMemoryCache;
+    private final ExecutorService mIoExecutor;
+
+    public interface OnThumbnailListener {
+        @MainThread
+        void onThumbnail(@NonNull Bitmap bitmap);
+    }
+
+    private ThumbnailCache(Context context) {
+        mDiskDir = new File(context.getCacheDir(), DISK_CACHE_DIR);
+        int maxBytes = (int) Math.min(MEMORY_CACHE_MAX_BYTES, Runtime.getRuntime().maxMemory() / 16);
+        mMemoryCache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+        mIoExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "hik-thumbnail");
+                thread.setPriority(Thread.MIN_PRIORITY);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public static ThumbnailCache getInstance(@NonNull Context context) {
+        if (sInstance == null) {
+            synchronized (ThumbnailCache.class) {
+                if (sInstance == null) {
+                    sInstance = new ThumbnailCache(context.getApplicationContext());
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 保存当前画面，停止播放前在主线程中调用
+     * <p>
+     * TextureView.getBitmap 直接按缩略图大小取图，压缩和写文件在子线程中执行；硬件解码等情况取不到画面时
+     * 在播放器队列中通过 capturePicture 抓图后再缩小。
+     */
+    @MainThread
+    public void saveFrame(@Nullable final String url, @NonNull TextureView textureView, @Nullable final HikVideoPlayer player) {
+        if (url == null) {
+            return;
+        }
+        Bitmap bitmap = null;
+        if (textureView.isAvailable() && textureView.getWidth() > 0) {
+            int width = Math.min(THUMBNAIL_MAX_WIDTH, textureView.getWidth());
+            int height = Math.max(1, textureView.getHeight() * width / textureView.getWidth());
+            bitmap = textureView.getBitmap(width, height);
+        }
+        if (bitmap != null) {
+            final Bitmap frame = bitmap;
+            mMemoryCache.put(url, frame);
+            mIoExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    writeToDisk(url, frame);
+                }
+            });
+        } else if (player != null) {
+            final File tempFile = new File(mDiskDir, key(url) + ".tmp");
+            PlayerTaskExecutor.getInstance().execute(player, new Runnable() {
+                @Override
+                public void run() {
+                    if (!mDiskDir.exists() && !mDiskDir.mkdirs()) {
+                        return;
+                    }
+                    if (player.capturePicture(tempFile.getAbsolutePath())) {
+                        mIoExecutor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                Bitmap frame = decodeScaled(tempFile);
+                                if (frame != null) {
+                                    mMemoryCache.put(url, frame);
+                                    writeToDisk(url, frame);
+                                }
+                                tempFile.delete();
+                            }
+                        });
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 读取缩略图，内存中没有时从磁盘读取，在主线程中回调；没有缓存时不回调
+     */
+    @MainThread
+    public void load(@Nullable final String url, @NonNull final View host, @NonNull final OnThumbnailListener listener) {
+        if (url == null) {
+            return;
+        }
+        Bitmap bitmap = mMemoryCache.get(url);
+        if (bitmap != null) {
+            listener.onThumbnail(bitmap);
+            return;
+        }
+        mIoExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap diskBitmap = BitmapFactory.decodeFile(getFile(url).getAbsolutePath());
+                if (diskBitmap == null) {
+                    return;
+                }
+                mMemoryCache.put(url, diskBitmap);
+                host.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onThumbnail(diskBitmap);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 磁盘缓存中的缩略图文件，可能不存在
+     */
+    public File getFile(@NonNull String url) {
+        return new File(mDiskDir, key(url) + ".jpg");
+    }
+
+    @WorkerThread
+    private void writeToDisk(String url, Bitmap bitmap) {
+        if (!mDiskDir.exists() && !mDiskDir.mkdirs()) {
+            Log.e(TAG, "writeToDisk: mkdirs failed");
+            return;
+        }
+        File file = getFile(url);
+        File tempFile = new File(mDiskDir, file.getName() + ".part");
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(tempFile);
+            bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+            out.close();
+            out = null;
+            //先写临时文件再改名，读取时不会读到写了一半的文件
+            if (!tempFile.renameTo(file)) {
+                tempFile.delete();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "writeToDisk: " + e.toString());
+            tempFile.delete();
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        trimDisk();
+    }
+
+    /**
+     * 磁盘缓存超过上限时删除最早写入的文件
+     */
+    @WorkerThread
+    private void trimDisk() {
+        File[] files = mDiskDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= DISK_CACHE_MAX_BYTES) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File left, File right) {
+                return Long.compare(left.lastModified(), right.lastModified());
+            }
+        });
+        for (File file : files) {
+            if (total <= DISK_CACHE_MAX_BYTES) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            }
+        }
+    }
+
+    @Nullable
+    @WorkerThread
+    private static Bitmap decodeScaled(File file) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+        int sampleSize = 1;
+        while (options.outWidth / (sampleSize * 2) >= THUMBNAIL_MAX_WIDTH) {
+            sampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        return BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+    }
+
+    private static String key(String url) {
+        return MyUtils.md5(url);
+    }
+}
@@ -2,13 +2,21 @@ package cn.cordova.hikvision.sdk.widget;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.graphics.Matrix;
 import android.support.annotation.IntDef;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
+import android.view.TextureView;
+import android.view.animation.AnimationUtils;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
 import android.widget.FrameLayout;
+import android.widget.OverScroller;
 
 import com.hikvision.open.hikvideoplayer.CustomRect;
 
@@ -19,6 +27,13 @@ import static android.support.v4.widget.ViewDragHelper.INVALID_POINTER;
 
 /**
  * 播放窗口容器，用于处理开启、关闭电子放大的手势事件
+ * <p>
+ * 触摸事件（包括 MotionEvent 中合并的历史采样）只更新放大区域，区域变化通过 Choreographer 在下一帧统一回调，
+ * 每帧最多回调一次 {@link OnDigitalScaleChangeListener#onDigitalRectChange}。
+ * <p>
+ * 电子放大有两种实现：{@link #ZOOM_ENGINE_NATIVE} 把放大区域交给播放器（openDigitalZoom）；
+ * {@link #ZOOM_ENGINE_TRANSFORM} 用同样的放大区域计算 TextureView 的变换矩阵，由 GPU 合成，手势过程中不调用播放器，
+ * 并支持惯性滑动和双击动画缩放。
  */
 public class PlayWindowContainer extends FrameLayout {
     /**
@@ -39,6 +54,28 @@ public class PlayWindowContainer extends FrameLayout {
     @TouchMode
     private int mClickMode = NONE;
 
+    /**
+     * 电子放大由播放器实现
+     */
+    public static final int ZOOM_ENGINE_NATIVE = 0;
+    /**
+     * 电子放大通过 TextureView.setTransform 实现
+     */
+    public static final int ZOOM_ENGINE_TRANSFORM = 1;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({ZOOM_ENGINE_NATIVE, ZOOM_ENGINE_TRANSFORM})
+    public @interface ZoomEngine {
+    }
+
+    @ZoomEngine
+    private int mZoomEngine = ZOOM_ENGINE_NATIVE;
+    /**
+     * ZOOM_ENGINE_TRANSFORM 时被变换的画面
+     */
+    private TextureView mTransformTarget;
+    private final Matrix mTransformMatrix = new Matrix();
+
     /**
      * 每次手势缩放的比例
      */
@@ -94,6 +131,66 @@ public class PlayWindowContainer extends FrameLayout {
 
     private GestureDetector mGestureDetector;
 
+    /**
+     * 双击缩放动画时长
+     */
+    private static final long DOUBLE_TAP_ZOOM_DURATION_MS = 250;
+    private final OverScroller mScroller;
+    private final Interpolator mZoomInterpolator = new DecelerateInterpolator();
+    private boolean mZoomAnimating = false;
+    private float mZoomFromScale;
+    private float mZoomToScale;
+    private long mZoomStartTime;
+    private boolean mAnimationPending = false;
+    /**
+     * 惯性滑动和双击缩放的动画，每帧更新放大区域后立即应用
+     */
+    private final Choreographer.FrameCallback mAnimationCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mAnimationPending = false;
+            if (onScaleChangeListener == null) {
+                return;
+            }
+            boolean running = false;
+            if (mScroller.computeScrollOffset()) {
+                moveTo(mScroller.getCurrX(), mScroller.getCurrY());
+                running = !mScroller.isFinished();
+            }
+            if (mZoomAnimating) {
+                float t = (AnimationUtils.currentAnimationTimeMillis() - mZoomStartTime) / (float) DOUBLE_TAP_ZOOM_DURATION_MS;
+                if (t >= 1) {
+                    mZoomAnimating = false;
+                    scale(mZoomToScale);
+                } else {
+                    scale(mZoomFromScale + (mZoomToScale - mZoomFromScale) * mZoomInterpolator.getInterpolation(t));
+                    running = true;
+                }
+            }
+            cancelRectChange();
+            dispatchRectChange();
+            if (running) {
+                postAnimation();
+            }
+        }
+    };
+
+    /**
+     * 放大区域有变化，等待下一帧回调
+     */
+    private boolean mRectDirty = false;
+    private boolean mFramePending = false;
+    private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mFramePending = false;
+            if (mRectDirty) {
+                mRectDirty = false;
+                dispatchRectChange();
+            }
+        }
+    };
+
 
     public PlayWindowContainer(@NonNull Context context) {
         this(context, null);
@@ -105,13 +202,19 @@ public class PlayWindowContainer extends FrameLayout {
 
     public PlayWindowContainer(@NonNull Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
+        mScroller = new OverScroller(context);
         mGestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
             @Override
             public boolean onDoubleTap(MotionEvent ev) {
                 if (!mDigitalZoomOpen || !mAllowOpenDigitalZoom) {
                     return false;
                 }
-                if (mLastScale == MAX_SCALE) {
+                if (isTransformEngine()) {
+                    float target = mLastScale == MAX_SCALE ? 1 : MAX_SCALE;
+                    callBackOnScaleChangeListener(target);
+                    midPointDoubleClick(ev);
+                    animateScale(target);
+                } else if (mLastScale == MAX_SCALE) {
                     midPointDoubleClick(ev);
                     callBackOnScaleChangeListener(1);
                     scale(1);
@@ -130,6 +233,15 @@ public class PlayWindowContainer extends FrameLayout {
                 }
                 return !mDigitalZoomOpen;
             }
+
+            @Override
+            public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+                if (!isTransformEngine() || !mDigitalZoomOpen || ZOOM_DRAG != mClickMode || onScaleChangeListener == null) {
+                    return false;
+                }
+                fling(velocityX, velocityY);
+                return true;
+            }
         });
     }
 
@@ -139,10 +251,20 @@ public class PlayWindowContainer extends FrameLayout {
         mOriginalRect.setValue(l, t, r, b);
         if (changed) {
             mVirtualRect.setValue(l, t, r, b);
+            if (isTransformEngine()) {
+                resetTransform();
+            }
         }
 
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        cancelRectChange();
+        stopAnimation();
+    }
+
 
     @SuppressLint("ClickableViewAccessibility")
     @Override
@@ -150,6 +272,10 @@ public class PlayWindowContainer extends FrameLayout {
         if (onClickListener == null && onDigitalListener == null && onScaleChangeListener == null) {
             return super.onTouchEvent(event);
         }
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            //手指按下时停止惯性滑动和缩放动画
+            stopAnimation();
+        }
         //使用手势检测器来判断单击和双击
         mGestureDetector.onTouchEvent(event);
         //处理缩放事件
@@ -208,40 +334,54 @@ public class PlayWindowContainer extends FrameLayout {
                         return;
                     }
 
-                    final float x = ev.getX(index);
-                    final float y = ev.getY(index);
+                    //高刷新率屏幕上一个 MOVE 事件会合并多个采样，按顺序处理，最后再处理当前位置
+                    final int historySize = ev.getHistorySize();
+                    for (int h = 0; h <= historySize; h++) {
+                        final float x = h < historySize ? ev.getHistoricalX(index, h) : ev.getX(index);
+                        final float y = h < historySize ? ev.getHistoricalY(index, h) : ev.getY(index);
 
-                    move(mLastMotionX, mLastMotionY, x, y);
+                        move(mLastMotionX, mLastMotionY, x, y);
 
-                    mLastMotionX = x;
-                    mLastMotionY = y;
+                        mLastMotionX = x;
+                        mLastMotionY = y;
+                    }
                 } else if (ZOOM_SCALE == mClickMode) {
                     if (ev.getPointerCount() != 2) {
                         return;
                     }
 
-                    float dis = spacing(ev);
-                    float scale = mLastScale + (dis - mLastDis) * UNIT_SCALE_RATIO;
+                    final int historySize = ev.getHistorySize();
+                    for (int h = 0; h <= historySize; h++) {
+                        final boolean current = h == historySize;
+                        final float x0 = current ? ev.getX(0) : ev.getHistoricalX(0, h);
+                        final float y0 = current ? ev.getY(0) : ev.getHistoricalY(0, h);
+                        final float x1 = current ? ev.getX(1) : ev.getHistoricalX(1, h);
+                        final float y1 = current ? ev.getY(1) : ev.getHistoricalY(1, h);
 
-                    mLastDis = dis;
+                        float dis = spacing(x0, y0, x1, y1);
+                        float scale = mLastScale + (dis - mLastDis) * UNIT_SCALE_RATIO;
 
-                    if (scale > MAX_SCALE) {
-                        scale = MAX_SCALE;
-                    }
+                        mLastDis = dis;
 
-                    //这个回调需要在两个倍率重置之间，避免出现倍率超过和无法通知上层需要关闭电子放大的问题
-                    callBackOnScaleChangeListener(scale);
-                    mLastScale = scale;
-                    if (scale < 1) {
-                        scale = 1;
-                        mShouldHandleScale = false;
-                        return;
-                    }
+                        if (scale > MAX_SCALE) {
+                            scale = MAX_SCALE;
+                        }
 
-                    scale(scale);
+                        if (scale < 1) {
+                            //这个回调需要在两个倍率重置之间，避免出现倍率超过和无法通知上层需要关闭电子放大的问题
+                            callBackOnScaleChangeListener(scale);
+                            mLastScale = scale;
+                            mShouldHandleScale = false;
+                            return;
+                        }
+                        mLastScale = scale;
 
-                    midPoint(ev);
+                        scale(scale);
 
+                        midPoint((x0 + x1) / 2, (y0 + y1) / 2);
+                    }
+                    //倍率显示每个事件只回调一次
+                    callBackOnScaleChangeListener(mLastScale);
                 }
                 break;
             case MotionEvent.ACTION_POINTER_DOWN:
@@ -295,8 +435,13 @@ public class PlayWindowContainer extends FrameLayout {
         if (event.getPointerCount() < 2) {
             return 0;
         }
-        float x = event.getX(0) - event.getX(1);
-        float y = event.getY(0) - event.getY(1);
+        return spacing(event.getX(0), event.getY(0), event.getX(1), event.getY(1));
+    }
+
+    @VisibleForTesting
+    static float spacing(float x0, float y0, float x1, float y1) {
+        float x = x0 - x1;
+        float y = y0 - y1;
 
         return (float) Math.sqrt(x * x + y * y);
     }
@@ -306,7 +451,8 @@ public class PlayWindowContainer extends FrameLayout {
      *
      * @param newScale 缩放比例
      */
-    private void scale(float newScale) {
+    @VisibleForTesting
+    void scale(float newScale) {
         float w = mOriginalRect.getWidth() * newScale;
         float h = mOriginalRect.getHeight() * newScale;
 
@@ -321,16 +467,18 @@ public class PlayWindowContainer extends FrameLayout {
 
         if (onScaleChangeListener != null) {
             mLastScale = newScale;
-            onScaleChangeListener.onDigitalRectChange(mOriginalRect, mVirtualRect);
+            requestRectChange();
         }
     }
 
     private void midPoint(MotionEvent event) {
-        float x = event.getX(0) + event.getX(1);
-        float y = event.getY(0) + event.getY(1);
+        midPoint((event.getX(0) + event.getX(1)) / 2, (event.getY(0) + event.getY(1)) / 2);
+    }
 
-        mRatioX = Math.abs(x / 2 - mVirtualRect.getLeft()) / mVirtualRect.getWidth();
-        mRatioY = Math.abs(y / 2 - mVirtualRect.getTop()) / mVirtualRect.getHeight();
+    @VisibleForTesting
+    void midPoint(float x, float y) {
+        mRatioX = Math.abs(x - mVirtualRect.getLeft()) / mVirtualRect.getWidth();
+        mRatioY = Math.abs(y - mVirtualRect.getTop()) / mVirtualRect.getHeight();
     }
 
 
@@ -342,7 +490,8 @@ public class PlayWindowContainer extends FrameLayout {
         mRatioY = Math.abs(y - mVirtualRect.getTop()) / mVirtualRect.getHeight();
     }
 
-    private void move(float lastX, float lastY, float curX, float curY) {
+    @VisibleForTesting
+    void move(float lastX, float lastY, float curX, float curY) {
 
         final float deltaX = curX - lastX;
         final float deltaY = curY - lastY;
@@ -362,10 +511,113 @@ public class PlayWindowContainer extends FrameLayout {
         judge(mOriginalRect, mVirtualRect);
 
         if (onScaleChangeListener != null) {
+            requestRectChange();
+        }
+    }
+
+    /**
+     * 标记放大区域有变化，在下一帧回调
+     */
+    private void requestRectChange() {
+        mRectDirty = true;
+        if (!mFramePending) {
+            mFramePending = true;
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+        }
+    }
+
+    private void cancelRectChange() {
+        mRectDirty = false;
+        if (mFramePending) {
+            mFramePending = false;
+            Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+        }
+    }
+
+    /**
+     * 应用放大区域：变换画面，或回调给播放器
+     */
+    private void dispatchRectChange() {
+        if (onScaleChangeListener == null) {
+            return;
+        }
+        if (isTransformEngine()) {
+            applyTransform();
+        } else {
             onScaleChangeListener.onDigitalRectChange(mOriginalRect, mVirtualRect);
         }
     }
 
+    private boolean isTransformEngine() {
+        return mZoomEngine == ZOOM_ENGINE_TRANSFORM && mTransformTarget != null;
+    }
+
+    /**
+     * 放大区域相对原始区域的缩放和平移，即画面需要的变换
+     */
+    private void applyTransform() {
+        float sx = mVirtualRect.getWidth() / mOriginalRect.getWidth();
+        float sy = mVirtualRect.getHeight() / mOriginalRect.getHeight();
+        mTransformMatrix.setScale(sx, sy);
+        mTransformMatrix.postTranslate(mVirtualRect.getLeft() - mOriginalRect.getLeft(),
+                mVirtualRect.getTop() - mOriginalRect.getTop());
+        mTransformTarget.setTransform(mTransformMatrix);
+        mTransformTarget.invalidate();
+    }
+
+    private void resetTransform() {
+        if (mTransformTarget != null) {
+            mTransformMatrix.reset();
+            mTransformTarget.setTransform(mTransformMatrix);
+            mTransformTarget.invalidate();
+        }
+    }
+
+    /**
+     * 惯性滑动，范围与 judge 一致，放大区域不会离开原始区域
+     */
+    private void fling(float velocityX, float velocityY) {
+        int minX = Math.round(mOriginalRect.getRight() - mVirtualRect.getWidth());
+        int minY = Math.round(mOriginalRect.getBottom() - mVirtualRect.getHeight());
+        mScroller.fling(Math.round(mVirtualRect.getLeft()), Math.round(mVirtualRect.getTop()),
+                Math.round(velocityX), Math.round(velocityY),
+                minX, Math.round(mOriginalRect.getLeft()), minY, Math.round(mOriginalRect.getTop()));
+        postAnimation();
+    }
+
+    /**
+     * 双击时以点击位置为中心动画缩放到目标倍数
+     */
+    private void animateScale(float targetScale) {
+        mScroller.forceFinished(true);
+        mZoomFromScale = Math.max(1, mLastScale);
+        mZoomToScale = targetScale;
+        mZoomStartTime = AnimationUtils.currentAnimationTimeMillis();
+        mZoomAnimating = true;
+        postAnimation();
+    }
+
+    private void moveTo(float left, float top) {
+        mVirtualRect.setValue(left, top, left + mVirtualRect.getWidth(), top + mVirtualRect.getHeight());
+        judge(mOriginalRect, mVirtualRect);
+    }
+
+    private void postAnimation() {
+        if (!mAnimationPending) {
+            mAnimationPending = true;
+            Choreographer.getInstance().postFrameCallback(mAnimationCallback);
+        }
+    }
+
+    private void stopAnimation() {
+        mScroller.forceFinished(true);
+        mZoomAnimating = false;
+        if (mAnimationPending) {
+            mAnimationPending = false;
+            Choreographer.getInstance().removeFrameCallback(mAnimationCallback);
+        }
+    }
+
     private void onSecondaryPointerUp(MotionEvent ev) {
         final int pointerIndex = (ev.getAction() & MotionEvent.ACTION_POINTER_INDEX_MASK) >> MotionEvent.ACTION_POINTER_INDEX_SHIFT;
         final int pointerId = ev.getPointerId(pointerIndex);
@@ -378,7 +630,8 @@ public class PlayWindowContainer extends FrameLayout {
         }
     }
 
-    private void judge(CustomRect oRect, CustomRect curRect) {
+    @VisibleForTesting
+    void judge(CustomRect oRect, CustomRect curRect) {
 
         float oL = oRect.getLeft();
         float oT = oRect.getTop();
@@ -425,6 +678,17 @@ public class PlayWindowContainer extends FrameLayout {
         this.mAllowOpenDigitalZoom = mAllowOpenDigitalZoom;
     }
 
+    /**
+     * 选择电子放大的实现，需要在开启电子放大前设置
+     *
+     * @param engine 实现方式
+     * @param target ZOOM_ENGINE_TRANSFORM 时被变换的画面，为空时使用播放器的电子放大
+     */
+    public void setZoomEngine(@ZoomEngine int engine, @Nullable TextureView target) {
+        this.mZoomEngine = engine;
+        this.mTransformTarget = target;
+    }
+
     /**
      * 点击监听
      */
@@ -479,6 +743,11 @@ public class PlayWindowContainer extends FrameLayout {
         this.onScaleChangeListener = onScaleChangeListener;
         //关闭电子放大的时候会设置监听为null,这里也将参数进行重置
         if (onScaleChangeListener == null) {
+            cancelRectChange();
+            stopAnimation();
+            if (isTransformEngine()) {
+                resetTransform();
+            }
             mVirtualRect.setValue(mOriginalRect.getLeft(), mOriginalRect.getTop(), mOriginalRect.getRight(),
                     mOriginalRect.getBottom());
             mLastMotionY = 0;
@@ -33,12 +33,24 @@ HikVisionSDK.prototype.callNative = function(
     }
 };
 // Common methods
-HikVisionSDK.prototype.init = function() {
+/**
+ * 初始化插件
+ *
+ * @param options = { 'playerPoolSize': number, 'maxPlayers': number, 'connectTimeout': number,
+ *                    'reconnect': { 'maxAttempts': number, 'baseDelay': number, 'maxDelay': number },
+ *                    'stallThreshold': number, 'backgroundGrace': number,
+ *                    'recording': { 'segmentDuration': number, 'preRoll': number, 'preRollQuota': number,
+ *                                   'cameraQuota': number, 'totalQuota': number, 'maxAge': number } } 可选，
+ *        预创建的播放器数量、播放器数量上限、开流超时时间（毫秒，默认15000）、取流异常后的重连策略、
+ *        卡顿判定时间（毫秒，默认3000）、进入后台后保持取流的时间（毫秒，默认5000，0为立即停止）、
+ *        分段录像时长（毫秒，0为不分段）、预录时长（毫秒，0为不预录）和所有监控点预录缓存上限（字节，默认200MB）、录像清理策略（单个监控点容量、总容量，单位字节；最长保存时间，单位毫秒；默认都是0，不限制也不清理）
+ */
+HikVisionSDK.prototype.init = function(options) {
     if (this.isPlatformIOS()) {
         this.callNative("initial", [], null);
     } else {
         console.log("init hik vision android sdk")
-        this.callNative("init", [], null);
+        this.callNative("init", [options || {}], null);
     }
 };
 
@@ -49,13 +61,200 @@ HikVisionSDK.prototype.provideHikVideoPlayer = function(params, successCallback,
  * 展示监控视频
  * 注意：该接口是覆盖逻辑，而不是增量逻辑。即新的调用会覆盖之前的设置。
  *
- * @param params = { 'url': string, 'title': string }
+ * @param params = { 'url': string, 'subUrl': string, 'title': string, 'autoplay': boolean, 'zoomEngine': 'native' | 'transform' }
+ *        多画面预览：{ 'cameras': [{ 'url': string, 'subUrl': string, 'title': string }], 'layout': 1 | 4 | 9 | 16 }
+ *        subUrl 为可选的子码流地址，传入后根据窗口大小、网络类型和卡顿情况自动切换主/子码流
+ *        autoplay 为 true 时打开页面的同时开始取流，不需要点击开始按钮
+ *        zoomEngine 为电子放大的实现，默认 native 由播放器放大；transform 通过画面变换放大，手势更流畅，支持惯性滑动和双击动画
+ * @param successCallback 第一帧画面显示（或未出画面就关闭页面）后返回开流各阶段耗时，多画面预览每一路回调一次
+ *        格式：{ 'id': string, 'url': string, 'firstFrame': boolean, 'total': number,
+ *                'stages': { 'bridge', 'activityCreated', 'surfaceAvailable', 'startIssued', 'playSuccess', 'firstFrame' } }
+ *        stages 中的时间为相对于插件收到调用的毫秒数
  */
 HikVisionSDK.prototype.showHikVideoPage = function(params, successCallback, errorCallback) {
 
     this.callNative("showHikVideoPage", [params], successCallback, errorCallback);
 };
 
+/**
+ * 打开录像回放页面，从startTime开始回放
+ *
+ * @param params = { 'url': string, 'title': string, 'startTime': number, 'endTime': number } 时间为毫秒时间戳
+ */
+HikVisionSDK.prototype.showHikPlaybackPage = function(params, successCallback, errorCallback) {
+    this.callNative("showHikPlaybackPage", [params], successCallback, errorCallback);
+};
+
+/**
+ * 回放定位，拖动时间轴时连续的定位请求只执行最新的一个
+ *
+ * @param params = { 'time': number } 毫秒时间戳
+ * 定位完成后返回：{ 'target': number, 'latency': number, 'skipped': number }，target 为实际定位的时间，latency 为定位耗时（毫秒），skipped 为被合并跳过的请求数
+ */
+HikVisionSDK.prototype.seekPlayback = function(params, successCallback, errorCallback) {
+    this.callNative("seekPlayback", [params], successCallback, errorCallback);
+};
+
+/**
+ * 暂停、恢复回放，播放器调用成功后才回调 successCallback
+ */
+HikVisionSDK.prototype.pausePlayback = function(successCallback, errorCallback) {
+    this.callNative("pausePlayback", [], successCallback, errorCallback);
+};
+
+HikVisionSDK.prototype.resumePlayback = function(successCallback, errorCallback) {
+    this.callNative("resumePlayback", [], successCallback, errorCallback);
+};
+/**
+ * 获取各监控点的重连统计
+ * 返回格式：{ url: { 'reconnects': number, 'recoveries': number, 'failures': number, 'lastError': string } }
+ */
+HikVisionSDK.prototype.getReconnectStats = function(successCallback, errorCallback) {
+    this.callNative("getReconnectStats", [], successCallback, errorCallback);
+};
+
+/**
+ * 获取正在播放的画面帧率和卡顿统计，jitter 为帧间隔抖动（毫秒），stalled 为当前是否卡顿
+ * 返回格式：[{ 'url': string, 'fps': number, 'jitter': number, 'stalled': boolean, 'stalls': number }]
+ */
+HikVisionSDK.prototype.getStreamStats = function(successCallback, errorCallback) {
+    this.callNative("getStreamStats", [], successCallback, errorCallback);
+};
+
+/**
+ * 订阅播放器事件，successCallback 会被多次调用，每次返回约250毫秒内合并的事件数组
+ * 事件格式：{ 'type': string, 'url': string, 'time': number, ... }
+ * type：status（status、errorCode）、state（from、to，窗口状态 IDLE / LOADING / SUCCESS / STOPPING / FAILED / EXCEPTION / FINISH 的每次切换）、reconnect（attempt、delay、errorCode）、reconnectFailed（errorCode）、
+ *       stall / recover（frozen）、fps（fps、jitter）、recording（recording、path）、seek（target、success、latency、skipped）
+ * 重复订阅会替换之前的订阅
+ */
+HikVisionSDK.prototype.subscribeEvents = function(successCallback, errorCallback) {
+    this.callNative("subscribeEvents", [], successCallback, errorCallback);
+};
+
+HikVisionSDK.prototype.unsubscribeEvents = function(successCallback, errorCallback) {
+    this.callNative("unsubscribeEvents", [], successCallback, errorCallback);
+};
+
+/**
+ * 批量执行命令，一次桥调用完成多个操作
+ * @param commands = [{ 'action': string, 'args': array, 'player': string }]，player 可选，默认取 args[0].url；
+ *        同一个 player 的命令按顺序执行，不同 player 的命令并行执行
+ * @param timeout 等待结果的最长时间（毫秒），可选，默认10000
+ * 返回与 commands 顺序一致的结果：[{ 'action': string, 'status': 'ok' | 'error' | 'pending', 'result': any }]
+ */
+HikVisionSDK.prototype.batch = function(commands, timeout, successCallback, errorCallback) {
+    var params = { 'commands': commands };
+    if (typeof timeout === 'number') {
+        params.timeout = timeout;
+    }
+    this.callNative("batch", [params], successCallback, errorCallback);
+};
+
+/**
+ * 抓图，JPEG 编码和写文件在后台执行，不影响画面
+ * @param params = { 'urls': [string], 'count': number, 'interval': number } 可选，
+ *        urls 为监控点地址，不传时对所有正在播放的监控点抓图；count 大于1时按 interval 毫秒间隔连拍
+ * 返回格式：[{ 'url': string, 'paths': [string], 'failed': number, 'error': string }]，error 只有监控点没有在播放时才有值
+ */
+HikVisionSDK.prototype.capturePicture = function(params, successCallback, errorCallback) {
+    this.callNative("capturePicture", [params || {}], successCallback, errorCallback);
+};
+
+/**
+ * 获取监控点最后一帧画面的缩略图，可作为列表中的占位图，应用重启后仍然有效
+ * @param urls 监控点地址数组
+ * 返回格式：{ url: 'file://...' }，没有缓存的监控点不返回
+ */
+HikVisionSDK.prototype.getThumbnails = function(urls, successCallback, errorCallback) {
+    this.callNative("getThumbnails", [{ 'urls': urls }], successCallback, errorCallback);
+};
+
+/**
+ * 分页查询本地抓图和录像，按开始时间从新到旧排列
+ * @param params = { 'camera': string, 'type': 'capture' | 'record', 'from': number, 'to': number, 'limit': number, 'cursor': object } 均可选，
+ *        camera 为监控点地址；from、to 为毫秒时间戳，返回与该时间段有重叠的记录；limit 默认50；cursor 为上一页返回的 next
+ * 返回格式：{ 'items': [{ 'id', 'camera', 'type', 'path', 'startTime', 'endTime', 'size', 'thumbnail' }], 'next': object }，没有更多数据时 next 为 null
+ */
+HikVisionSDK.prototype.queryMedia = function(params, successCallback, errorCallback) {
+    this.callNative("queryMedia", [params || {}], successCallback, errorCallback);
+};
+
+// 嵌入网页的播放窗口，key 为窗口 id；原生层按 id 区分窗口，所以计数和窗口表在模块内共享，
+// window.plugins.hikVisionSDK 和 module.exports 两个实例不会分配相同的 id
+var inlineVideos = {};
+var inlineVideoCount = 0;
+
+HikVisionSDK.prototype.getElementRect = function(element) {
+    var rect = element.getBoundingClientRect();
+    return { 'x': rect.left, 'y': rect.top, 'width': rect.width, 'height': rect.height };
+};
+
+/**
+ * 在网页元素的位置显示播放窗口，不打开新页面；网页滚动和窗口大小变化时窗口位置会自动同步
+ * @param element 视频所在的 DOM 元素
+ * @param options = { 'url': string, 'subUrl': string, 'title': string, 'below': boolean }，
+ *        below 为 true 时窗口在 WebView 下方，需要元素区域透明，网页内容可以覆盖在视频上
+ * @return 窗口 id，用于 updateInlineVideo 和 hideInlineVideo
+ */
+HikVisionSDK.prototype.showInlineVideo = function(element, options, successCallback, errorCallback) {
+    var self = this;
+    var id = "inline-" + (++inlineVideoCount);
+    var tracker = { 'element': element, 'rect': this.getElementRect(element), 'frame': 0 };
+    // 每帧最多同步一次，位置没有变化时不调用原生
+    tracker.onChange = function() {
+        if (tracker.frame) {
+            return;
+        }
+        tracker.frame = window.requestAnimationFrame(function() {
+            tracker.frame = 0;
+            self.updateInlineVideo(id);
+        });
+    };
+    window.addEventListener("scroll", tracker.onChange, true);
+    window.addEventListener("resize", tracker.onChange);
+    inlineVideos[id] = tracker;
+    var params = {
+        'id': id,
+        'url': options.url,
+        'subUrl': options.subUrl,
+        'title': options.title,
+        'below': !!options.below,
+        'rect': tracker.rect
+    };
+    this.callNative("showInlineVideo", [params], successCallback, errorCallback);
+    return id;
+};
+
+/**
+ * 同步播放窗口的位置，页面布局变化但没有滚动或窗口大小变化时手动调用
+ */
+HikVisionSDK.prototype.updateInlineVideo = function(id, successCallback, errorCallback) {
+    var tracker = inlineVideos[id];
+    if (!tracker) {
+        return;
+    }
+    var rect = this.getElementRect(tracker.element);
+    var last = tracker.rect;
+    if (rect.x === last.x && rect.y === last.y && rect.width === last.width && rect.height === last.height) {
+        return;
+    }
+    tracker.rect = rect;
+    this.callNative("updateInlineVideo", [{ 'id': id, 'rect': rect }], successCallback, errorCallback);
+};
+
+HikVisionSDK.prototype.hideInlineVideo = function(id, successCallback, errorCallback) {
+    var tracker = inlineVideos[id];
+    if (tracker) {
+        window.removeEventListener("scroll", tracker.onChange, true);
+        window.removeEventListener("resize", tracker.onChange);
+        if (tracker.frame) {
+            window.cancelAnimationFrame(tracker.frame);
+        }
+        delete inlineVideos[id];
+    }
+    this.callNative("hideInlineVideo", [{ 'id': id }], successCallback, errorCallback);
+};
 
 if (!window.plugins) {
     window.plugins = {};